@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+#
+# Mede o tempo até a primeira requisição atendida e o RSS logo depois dela, em modo JVM e nativo.
+#
+# Uso: scripts/startup-benchmark.sh [execuções]      (padrão: 5)
+#
+# Artefatos esperados (o modo cujo artefato não existir é pulado):
+#   JVM:    ./mvnw package -DskipTests            -> target/quarkus-app/quarkus-run.jar
+#   Nativo: ./mvnw package -Dnative -DskipTests   -> target/*-runner
+#
+# O tempo vai do fork do processo até o primeiro 200 em /v1/racas/1, que já passa por Hibernate,
+# Jackson e pelos filtros. A sondagem é feita a cada ~5 ms, que é a resolução da medida.
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+URL="http://localhost:${PORT}/v1/racas/1"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="$(mktemp -d)"
+PID=""
+
+cleanup() {
+    if [[ -n "$PID" ]]; then kill "$PID" 2>/dev/null || true; fi
+    rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+# Journal de auditoria e fotos num diretório descartável; log mínimo para não medir a escrita no console
+PROPS=(
+    "-Dquarkus.http.port=${PORT}"
+    "-Dcaoamigo.audit.dir=${WORK}/data/audit"
+    "-Dcaoamigo.fotos.dir=${WORK}/data/fotos"
+    "-Dquarkus.log.level=WARN"
+)
+
+mediana() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+medir() {
+    local modo="$1"; shift
+    local tempos="$WORK/$modo.tempos" rss="$WORK/$modo.rss"
+    : > "$tempos"; : > "$rss"
+
+    for ((i = 1; i <= RUNS; i++)); do
+        rm -rf "$WORK/data"
+        local inicio fim
+        inicio=$(date +%s%N)
+        "$@" > "$WORK/$modo.log" 2>&1 &
+        PID=$!
+        until curl -sf -o /dev/null "$URL"; do
+            if ! kill -0 "$PID" 2>/dev/null; then
+                echo "$modo: o processo terminou antes de responder" >&2
+                cat "$WORK/$modo.log" >&2
+                exit 1
+            fi
+            sleep 0.005
+        done
+        fim=$(date +%s%N)
+        echo $(( (fim - inicio) / 1000000 )) >> "$tempos"
+        ps -o rss= -p "$PID" | tr -d ' ' >> "$rss"
+        kill "$PID"
+        wait "$PID" 2>/dev/null || true
+        PID=""
+    done
+
+    printf "%-6s  primeira requisição: mediana %5d ms (min %d, max %d)   RSS: mediana %4d MB\n" "$modo" \
+        "$(mediana < "$tempos")" "$(sort -n "$tempos" | head -1)" "$(sort -n "$tempos" | tail -1)" \
+        "$(( $(mediana < "$rss") / 1024 ))"
+}
+
+echo "$RUNS execuções por modo, porta $PORT"
+
+JAR="$ROOT/target/quarkus-app/quarkus-run.jar"
+if [[ -f "$JAR" ]]; then
+    medir jvm java "${PROPS[@]}" -jar "$JAR"
+else
+    echo "jvm     pulado: $JAR não encontrado"
+fi
+
+RUNNER="$(ls "$ROOT"/target/*-runner 2>/dev/null | head -1 || true)"
+if [[ -n "$RUNNER" && -x "$RUNNER" ]]; then
+    medir nativo "$RUNNER" "${PROPS[@]}"
+else
+    echo "nativo  pulado: target/*-runner não encontrado"
+fi
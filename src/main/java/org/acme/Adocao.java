@@ -6,13 +6,23 @@ import jakarta.validation.constraints.*;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 public class Adocao extends PanacheEntityBase {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     public Long id;
 
+    // Controle de concorrência otimista (usado pelo PATCH)
+    @Version
+    @ColumnDefault("0")
+    @Schema(readOnly = true)
+    public Long version;
+
     @NotNull(message = "A data da solicitação não pode ser nula")
     public LocalDate dataSolicitacao;
 
@@ -0,0 +1,42 @@
+package org.acme;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import org.hibernate.annotations.BatchSize;
+
+// Adoção encerrada (aprovada ou rejeitada) movida para o arquivo pelo ArquivamentoAdocoes.
+// Guarda só os ids de cachorro e raças, sem chave estrangeira, para não travar exclusões nas tabelas quentes.
+@Entity
+@Table(indexes = @Index(name = "idx_adocao_arquivada_cachorro", columnList = "cachorroId"))
+public class AdocaoArquivada extends PanacheEntityBase {
+    // Mesmo id da adoção original
+    @Id
+    public Long id;
+
+    public LocalDate dataSolicitacao;
+
+    public String justificativa;
+
+    public String status;
+
+    public Long cachorroId;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "adocao_arquivada_raca", joinColumns = @JoinColumn(name = "adocao_id"),
+            indexes = @Index(name = "idx_adocao_arquivada_raca", columnList = "raca_id"))
+    @Column(name = "raca_id")
+    // Páginas da pesquisa carregam as raças em lotes, e não uma consulta por adoção
+    @BatchSize(size = 50)
+    public Set<Long> racaIds = new HashSet<>();
+
+    public LocalDate dataArquivamento;
+
+    @JsonProperty("arquivada")
+    public boolean isArquivada() {
+        return true;
+    }
+}
\ No newline at end of file
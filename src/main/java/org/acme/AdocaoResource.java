@@ -1,9 +1,18 @@
 package org.acme;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.panache.common.Sort;
 import jakarta.transaction.Transactional;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -20,11 +29,20 @@ import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
 
+import org.acme.audit.Auditor;
+import org.acme.observability.JsonSqlStats;
 import org.acme.idempotency.Idempotent;
+import org.acme.readmodel.CachorroAlterado;
+import org.hibernate.Hibernate;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.net.URI;
 import jakarta.ws.rs.core.UriBuilder;
@@ -32,38 +50,70 @@ import jakarta.ws.rs.core.UriBuilder;
 @Path("/v1/adocoes")
 @Consumes("application/json")
 @Produces("application/json")
+@JsonSqlStats
 public class AdocaoResource {
 
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    Event<CachorroAlterado> cachorroAlterado;
+
+    @Inject
+    Auditor auditor;
+
+    // Campos de ordenação da pesquisa: os que existem tanto em Adocao quanto em AdocaoArquivada
+    private static final Set<String> CAMPOS_ORDENACAO = Set.of("id", "dataSolicitacao", "justificativa", "status");
+
     @GET
-    @Operation(summary = "Retorna todas as adoções")
+    @Operation(summary = "Retorna todas as adoções", description = "Com includeArchived=true retorna ativas e arquivadas no formato AdocaoResumo, distinguidas pelo campo arquivada")
     @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Adocao.class, type = SchemaType.ARRAY)))
     @Timeout(3000)
-    public Response getAll(){
-        return Response.ok(Adocao.listAll()).build();
+    public Response getAll(@QueryParam("includeArchived") @DefaultValue("false") boolean includeArchived){
+        if(!includeArchived) return Response.ok(Adocao.listAll()).build();
+        // join fetch: cachorro, racas e racaIds vêm na mesma consulta, sem uma consulta extra por adoção
+        List<AdocaoResumo> todas = new ArrayList<>();
+        Adocao.find("select distinct a from Adocao a left join fetch a.cachorro left join fetch a.racas order by a.id")
+                .<Adocao>list().forEach(a -> todas.add(AdocaoResumo.de(a)));
+        AdocaoArquivada.find("select distinct a from AdocaoArquivada a left join fetch a.racaIds order by a.id")
+                .<AdocaoArquivada>list().forEach(a -> todas.add(AdocaoResumo.de(a)));
+        return Response.ok(todas).build();
     }
 
     @GET
     @Path("{id}")
-    @Operation(summary = "Retorna uma adoção por ID")
+    @Operation(summary = "Retorna uma adoção por ID", description = "Com includeArchived=true procura também no arquivo e retorna AdocaoResumo, ativa ou arquivada")
     @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Adocao.class)))
     @APIResponse(responseCode = "404", description = "Não encontrado")
-    public Response getById(@PathParam("id") long id){
+    public Response getById(@PathParam("id") long id, @QueryParam("includeArchived") @DefaultValue("false") boolean includeArchived){
         Adocao entity = Adocao.findById(id);
+        if(includeArchived){
+            if(entity != null) return Response.ok(AdocaoResumo.de(entity)).build();
+            AdocaoArquivada arquivada = AdocaoArquivada.findById(id);
+            if(arquivada != null) return Response.ok(AdocaoResumo.de(arquivada)).build();
+        }
         if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
         return Response.ok(entity).build();
     }
 
     @GET
     @Path("/search")
-    @Operation(summary = "Pesquisa adoções")
+    @Operation(summary = "Pesquisa adoções", description = "Com includeArchived=true pesquisa também o arquivo: Adocoes traz AdocaoResumo, "
+            + "primeiro as ativas e depois as arquivadas, cada parte ordenada por sort, e o total e a paginação cobrem as duas")
     @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Adocao.class, type = SchemaType.ARRAY)))
+    @APIResponse(responseCode = "400", description = "Campo de ordenação inválido")
     public Response search(
             @QueryParam("q") String q,
             @QueryParam("sort") @DefaultValue("id") String sort,
             @QueryParam("direction") @DefaultValue("asc") String direction,
             @QueryParam("page") @DefaultValue("0") int page,
-            @QueryParam("size") @DefaultValue("4") int size
+            @QueryParam("size") @DefaultValue("4") int size,
+            @QueryParam("includeArchived") @DefaultValue("false") boolean includeArchived
     ){
+        if(!CAMPOS_ORDENACAO.contains(sort)) return Response.status(Response.Status.BAD_REQUEST).entity("Campo de ordenação inválido: " + sort).build();
         Sort sortObj = Sort.by(sort, "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending);
         PanacheQuery<Adocao> query;
         if (q == null || q.isBlank()) {
@@ -75,15 +125,42 @@ public class AdocaoResource {
                 query = Adocao.find("lower(status) like ?1 or lower(justificativa) like ?1", sortObj, "%" + q.toLowerCase() + "%");
             }
         }
-        List<Adocao> adocoes = query.page(Math.max(page, 0), size).list();
-
-        var response = new SearchAdocaoResponse();
-        response.Adocoes = adocoes;
-        response.TotalAdocoes = (int) query.count();
-        response.TotalPages = query.pageCount();
-        response.HasMore = page < query.pageCount() - 1;
-        response.NextPage = response.HasMore ? UriBuilder.fromPath("/v1/adocoes/search").queryParam("q", q).queryParam("page", page + 1).queryParam("size", size).build().toString() : "";
+        if(!includeArchived){
+            var response = new SearchAdocaoResponse<Adocao>();
+            response.Adocoes = query.page(Math.max(page, 0), size).list();
+            response.TotalAdocoes = (int) query.count();
+            response.TotalPages = query.pageCount();
+            response.HasMore = page < query.pageCount() - 1;
+            response.NextPage = response.HasMore ? UriBuilder.fromPath("/v1/adocoes/search").queryParam("q", q).queryParam("page", page + 1).queryParam("size", size).build().toString() : "";
+            return Response.ok(response).build();
+        }
 
+        PanacheQuery<AdocaoArquivada> arquivo;
+        if (q == null || q.isBlank()) {
+            arquivo = AdocaoArquivada.findAll(sortObj);
+        } else {
+            try {
+                arquivo = AdocaoArquivada.find("dataSolicitacao = ?1", sortObj, LocalDate.parse(q));
+            } catch (Exception e) {
+                arquivo = AdocaoArquivada.find("lower(status) like ?1 or lower(justificativa) like ?1", sortObj, "%" + q.toLowerCase() + "%");
+            }
+        }
+        // Uma só sequência, ativas e depois arquivadas: a página pode juntar o fim de uma com o início da outra
+        long ativas = query.count();
+        long total = ativas + arquivo.count();
+        long inicio = (long) Math.max(page, 0) * size;
+        long fim = Math.min(inicio + size, total);
+        var response = new SearchAdocaoResponse<AdocaoResumo>();
+        if(inicio < Math.min(fim, ativas)){
+            query.range((int) inicio, (int) Math.min(fim, ativas) - 1).list().forEach(a -> response.Adocoes.add(AdocaoResumo.de(a)));
+        }
+        if(fim > ativas){
+            arquivo.range((int) (Math.max(inicio, ativas) - ativas), (int) (fim - ativas) - 1).list().forEach(a -> response.Adocoes.add(AdocaoResumo.de(a)));
+        }
+        response.TotalAdocoes = total;
+        response.TotalPages = size <= 0 ? 0 : (int) ((total + size - 1) / size);
+        response.HasMore = page < response.TotalPages - 1;
+        response.NextPage = response.HasMore ? UriBuilder.fromPath("/v1/adocoes/search").queryParam("q", q).queryParam("page", page + 1).queryParam("size", size).queryParam("includeArchived", true).build().toString() : "";
         return Response.ok(response).build();
     }
 
@@ -113,6 +190,8 @@ public class AdocaoResource {
             adocao.racas = resolved;
         }
         Adocao.persist(adocao);
+        atualizarDisponibilidade(adocao.cachorro);
+        auditor.created("Adocao", adocao.id, adocao);
         URI location = UriBuilder.fromPath("/v1/adocoes/{id}").build(adocao.id);
         return Response.created(location).entity(adocao).build();
     }
@@ -126,9 +205,15 @@ public class AdocaoResource {
     public Response delete(@PathParam("id") long id){
         Adocao entity = Adocao.findById(id);
         if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
+        Cachorro cachorro = entity.cachorro;
+        JsonNode antes = auditor.snapshot(entity);
         entity.racas.clear();
         entity.persist();
         Adocao.deleteById(id);
+        // Flush aqui: se um DELETE concorrente já removeu a linha, vira 409 em vez de um segundo 204
+        Adocao.flush();
+        atualizarDisponibilidade(cachorro);
+        auditor.deleted("Adocao", id, antes);
         return Response.noContent().build();
     }
 
@@ -141,6 +226,8 @@ public class AdocaoResource {
     public Response update(@PathParam("id") long id, @Valid Adocao newAdocao){
         Adocao entity = Adocao.findById(id);
         if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
+        Cachorro anterior = entity.cachorro;
+        JsonNode antes = auditor.snapshot(entity);
 
         entity.dataSolicitacao = newAdocao.dataSolicitacao;
         entity.justificativa = newAdocao.justificativa;
@@ -167,6 +254,103 @@ public class AdocaoResource {
             entity.racas = new HashSet<>();
         }
 
+        atualizarDisponibilidade(anterior, entity.cachorro);
+        // Flush antes do snapshot da auditoria, como no PATCH: a version já incrementada
+        Adocao.flush();
+        auditor.updated("Adocao", id, antes, entity);
+        return Response.status(Response.Status.OK).entity(entity).build();
+    }
+
+    @PATCH
+    @Path("{id}")
+    @Consumes("application/merge-patch+json")
+    @Operation(summary = "Atualiza parcialmente uma adoção", description = "JSON Merge Patch (RFC 7396): só os campos enviados são alterados; cachorro e racas só são resolvidos se enviados. Requer chave de idempotência e o campo version atual")
+    @Parameter(name = "X-Idempotency-Key", in = ParameterIn.HEADER, required = true, description = "Chave única para garantir idempotência")
+    @APIResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = Adocao.class)))
+    @APIResponse(responseCode = "404", description = "Não encontrado")
+    @APIResponse(responseCode = "409", description = "O campo version não corresponde à versão atual")
+    @APIResponse(responseCode = "428", description = "Campo version ausente")
+    @Idempotent
+    @Transactional
+    public Response patch(@PathParam("id") long id, JsonNode patch){
+        if(patch == null || !patch.isObject()) return Response.status(Response.Status.BAD_REQUEST).entity("O corpo deve ser um objeto JSON").build();
+
+        Adocao entity = Adocao.findById(id);
+        if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
+
+        JsonNode version = patch.get("version");
+        if(version == null || !version.canConvertToLong()) return Response.status(Response.Status.PRECONDITION_REQUIRED).entity("O campo version é obrigatório").build();
+        if(!Objects.equals(entity.version, version.asLong())) return Response.status(Response.Status.CONFLICT).entity("A adoção foi alterada por outra requisição").build();
+
+        // A resposta serializa as racas depois do commit, com a sessão já fechada: carregadas aqui,
+        // também entram no snapshot "antes" (o Auditor não inicializa associações lazy)
+        Hibernate.initialize(entity.racas);
+        JsonNode antes = auditor.snapshot(entity);
+
+        // Resolve os relacionamentos antes de alterar a entidade, para não gravar um patch incompleto
+        // null remove o cachorro (RFC 7396); qualquer outra coisa precisa trazer um id numérico
+        Cachorro cachorro = entity.cachorro;
+        if(patch.has("cachorro")){
+            JsonNode novo = patch.get("cachorro");
+            cachorro = null;
+            if(!novo.isNull()){
+                JsonNode cachorroId = novo.path("id");
+                if(!cachorroId.isIntegralNumber() || !cachorroId.canConvertToLong()) return Response.status(Response.Status.BAD_REQUEST).entity("cachorro.id deve ser numérico").build();
+                cachorro = Cachorro.findById(cachorroId.asLong());
+                if(cachorro == null) return Response.status(Response.Status.BAD_REQUEST).entity("Cachorro inexistente").build();
+            }
+        }
+
+        Set<Raca> racas = null;
+        if(patch.has("racas")){
+            JsonNode novas = patch.get("racas");
+            if(!novas.isNull() && !novas.isArray()) return Response.status(Response.Status.BAD_REQUEST).entity("racas deve ser uma lista").build();
+            Set<Long> ids = new HashSet<>();
+            for(JsonNode r : novas){
+                JsonNode racaId = r.path("id");
+                if(!racaId.isIntegralNumber() || !racaId.canConvertToLong()) return Response.status(Response.Status.BAD_REQUEST).entity("racas[].id deve ser numérico").build();
+                ids.add(racaId.asLong());
+            }
+            // Uma única consulta em vez de um findById por raça
+            List<Raca> fetched = ids.isEmpty() ? List.of() : Raca.list("id in ?1", ids);
+            if(fetched.size() != ids.size()) return Response.status(Response.Status.BAD_REQUEST).entity("Raça inexistente").build();
+            racas = new HashSet<>(fetched);
+        }
+
+        Cachorro anterior = entity.cachorro;
+        entity.cachorro = cachorro;
+        if(racas != null) entity.racas = racas;
+
+        // Relacionamentos já tratados acima; id e version nunca vêm do cliente
+        ObjectNode campos = ((ObjectNode) patch).deepCopy();
+        campos.remove(List.of("id", "version", "cachorro", "racas"));
+        try {
+            objectMapper.readerForUpdating(entity).readValue(campos);
+        } catch (IOException e) {
+            // o patch pode ter sido aplicado pela metade
+            QuarkusTransaction.setRollbackOnly();
+            return Response.status(Response.Status.BAD_REQUEST).entity("Patch inválido: " + e.getMessage()).build();
+        }
+
+        Set<ConstraintViolation<Adocao>> violations = validator.validate(entity);
+        if(!violations.isEmpty()) throw new ConstraintViolationException(violations);
+
+        // Flush aqui para que um conflito de versão vire 409 antes da resposta
+        atualizarDisponibilidade(anterior, entity.cachorro);
+        Adocao.flush();
+        auditor.updated("Adocao", id, antes, entity);
         return Response.status(Response.Status.OK).entity(entity).build();
     }
+
+    // Mantém Cachorro.disponibilidade em sincronia com as adoções, na mesma transação.
+    // Em ordem de id: cada cachorro é travado, e duas trocas de cachorro em sentidos opostos não se bloqueiam.
+    private void atualizarDisponibilidade(Cachorro... cachorros){
+        Arrays.stream(cachorros)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted(Comparator.comparing((Cachorro c) -> c.id))
+                .forEach(c -> {
+                    if(c.atualizarDisponibilidade()) cachorroAlterado.fire(CachorroAlterado.salvo(c));
+                });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package org.acme;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Formato de GET /v1/adocoes, /v1/adocoes/{id} e /v1/adocoes/search com includeArchived=true:
+// o mesmo para adoções ativas e arquivadas, distinguidas por arquivada.
+@RegisterForReflection
+public class AdocaoResumo {
+    public Long id;
+    public LocalDate dataSolicitacao;
+    public String justificativa;
+    public String status;
+    public Long cachorroId;
+    public Set<Long> racaIds = new TreeSet<>();
+    public boolean arquivada;
+    // Preenchido apenas nas arquivadas
+    public LocalDate dataArquivamento;
+
+    // Em listas, carregue cachorro e racas antes (join fetch) ou em lote, para não fazer uma consulta por adoção
+    public static AdocaoResumo de(Adocao adocao) {
+        AdocaoResumo resumo = new AdocaoResumo();
+        resumo.id = adocao.id;
+        resumo.dataSolicitacao = adocao.dataSolicitacao;
+        resumo.justificativa = adocao.justificativa;
+        resumo.status = adocao.status;
+        resumo.cachorroId = adocao.cachorro == null ? null : adocao.cachorro.id;
+        for (Raca raca : adocao.racas) resumo.racaIds.add(raca.id);
+        return resumo;
+    }
+
+    // Idem para racaIds (join fetch ou @BatchSize)
+    public static AdocaoResumo de(AdocaoArquivada arquivada) {
+        AdocaoResumo resumo = new AdocaoResumo();
+        resumo.id = arquivada.id;
+        resumo.dataSolicitacao = arquivada.dataSolicitacao;
+        resumo.justificativa = arquivada.justificativa;
+        resumo.status = arquivada.status;
+        resumo.cachorroId = arquivada.cachorroId;
+        resumo.racaIds.addAll(arquivada.racaIds);
+        resumo.arquivada = true;
+        resumo.dataArquivamento = arquivada.dataArquivamento;
+        return resumo;
+    }
+}
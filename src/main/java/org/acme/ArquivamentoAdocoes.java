@@ -0,0 +1,86 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+import org.acme.audit.Auditor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Move adoções encerradas (aprovadas ou rejeitadas) mais antigas que caoamigo.arquivamento.dias
+ * de Adocao/adocao_raca para AdocaoArquivada/adocao_arquivada_raca, em lotes com transações curtas.
+ * Assim as consultas e verificações de conflito sobre as tabelas quentes continuam pequenas.
+ * As operações em lote não passam pelos endpoints: cada lote grava um registro ARCHIVE no journal de auditoria.
+ */
+@ApplicationScoped
+public class ArquivamentoAdocoes {
+
+    private static final Logger LOG = Logger.getLogger(ArquivamentoAdocoes.class);
+    private static final List<String> STATUS_ENCERRADOS = List.of(Disponibilidade.STATUS_APROVADA, Disponibilidade.STATUS_REJEITADA);
+
+    @ConfigProperty(name = "caoamigo.arquivamento.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "caoamigo.arquivamento.dias", defaultValue = "180")
+    int dias;
+
+    @ConfigProperty(name = "caoamigo.arquivamento.lote", defaultValue = "500")
+    int lote;
+
+    @Inject
+    Auditor auditor;
+
+    @Scheduled(every = "${caoamigo.arquivamento.intervalo:1h}", delayed = "1m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void arquivarPeriodicamente() {
+        if (enabled) arquivar();
+    }
+
+    /**
+     * Retorna o número de adoções arquivadas.
+     */
+    public int arquivar() {
+        LocalDate limite = LocalDate.now().minusDays(dias);
+        int total = 0;
+        int movidas;
+        do {
+            // Uma transação por lote: bloqueios curtos e progresso preservado se algo falhar
+            movidas = QuarkusTransaction.requiringNew().call(() -> arquivarLote(limite));
+            total += movidas;
+        } while (movidas == lote);
+        if (total > 0) LOG.infof("%d adoções encerradas arquivadas", total);
+        return total;
+    }
+
+    private int arquivarLote(LocalDate limite) {
+        EntityManager em = Adocao.getEntityManager();
+        List<Long> ids = em.createQuery("select a.id from Adocao a where lower(a.status) in :status and a.dataSolicitacao < :limite order by a.id", Long.class)
+                .setParameter("status", STATUS_ENCERRADOS)
+                .setParameter("limite", limite)
+                .setMaxResults(lote)
+                .getResultList();
+        if (ids.isEmpty()) return 0;
+
+        // Tudo em operações de conjunto: nenhuma entidade é carregada no contexto de persistência
+        em.createQuery("insert into AdocaoArquivada (id, dataSolicitacao, justificativa, status, cachorroId, dataArquivamento) "
+                        + "select a.id, a.dataSolicitacao, a.justificativa, a.status, c.id, current_date from Adocao a left join a.cachorro c where a.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createNativeQuery("insert into adocao_arquivada_raca (adocao_id, raca_id) select adocao_id, raca_id from adocao_raca where adocao_id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createNativeQuery("delete from adocao_raca where adocao_id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createQuery("delete from Adocao a where a.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        // Gravado após o commit deste lote, como os eventos dos endpoints
+        auditor.archived("Adocao", "AdocaoArquivada", ids);
+        return ids.size();
+    }
+}
\ No newline at end of file
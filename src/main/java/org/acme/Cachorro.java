@@ -1,6 +1,7 @@
 package org.acme;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonMerge;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -8,14 +9,25 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 
 @Entity
+@DynamicUpdate
+@Table(indexes = @Index(name = "idx_cachorro_disponibilidade", columnList = "disponibilidade, id"))
 public class Cachorro extends PanacheEntityBase {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Schema(readOnly = true)
     public Long id;
 
+    // Controle de concorrência otimista (usado pelo PATCH)
+    @Version
+    @ColumnDefault("0")
+    @Schema(readOnly = true)
+    public Long version;
+
     @NotBlank(message = "O nome do cachorro não pode ser vazio")
     @Size(min = 2, max = 100, message = "O nome deve ter entre 2 e 100 caracteres")
     public String nome;
@@ -27,9 +39,18 @@ public class Cachorro extends PanacheEntityBase {
     @Size(max = 80)
     public String localDeResgate;
 
+    // Mantida pelos endpoints de adoção; não é alterada pelo cliente e não incrementa a version
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'DISPONIVEL'")
+    @Column(nullable = false, length = 20)
+    @OptimisticLock(excluded = true)
+    @Schema(readOnly = true)
+    public Disponibilidade disponibilidade = Disponibilidade.DISPONIVEL;
+
     // One-to-One: um cachorro tem uma ficha detalhada
     @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @JoinColumn(name = "ficha_cachorro_id")
+    @JsonMerge
     public FichaCachorro ficha;
 
     // One-to-Many: um cachorro pode ter várias solicitações de adoção
@@ -46,4 +67,32 @@ public class Cachorro extends PanacheEntityBase {
         this.localDeResgate = localDeResgate;
         this.ficha = ficha;
     }
+
+    /**
+     * Recalcula a disponibilidade a partir das adoções deste cachorro.
+     * Retorna true se o valor mudou.
+     * <p>
+     * Trava a linha do cachorro (PESSIMISTIC_WRITE) antes de ler as adoções: escritas concorrentes
+     * em adoções do mesmo cachorro derivam o estado uma depois da outra, e a segunda já enxerga as
+     * adoções da primeira. O valor atual é relido sob a trava porque a disponibilidade fica fora da
+     * version e esta instância pode ter sido carregada antes da outra transação terminar.
+     */
+    public boolean atualizarDisponibilidade() {
+        Disponibilidade atual = getEntityManager()
+                .createQuery("select c.disponibilidade from Cachorro c where c.id = ?1", Disponibilidade.class)
+                .setParameter(1, id)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getSingleResult();
+        List<String> status = new ArrayList<>(getEntityManager()
+                .createQuery("select a.status from Adocao a where a.cachorro.id = ?1", String.class)
+                .setParameter(1, id)
+                .getResultList());
+        // A adoção aprovada pode já ter sido arquivada
+        if (AdocaoArquivada.count("cachorroId = ?1 and lower(status) = ?2", id, Disponibilidade.STATUS_APROVADA) > 0) {
+            status.add(Disponibilidade.STATUS_APROVADA);
+        }
+        Disponibilidade nova = Disponibilidade.derivar(status);
+        disponibilidade = nova;
+        return nova != atual;
+    }
 }
\ No newline at end of file
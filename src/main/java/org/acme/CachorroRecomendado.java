@@ -0,0 +1,14 @@
+package org.acme;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+@RegisterForReflection
+public class CachorroRecomendado {
+    public Cachorro Cachorro;
+    public float Similaridade;
+
+    public CachorroRecomendado(Cachorro cachorro, float similaridade) {
+        this.Cachorro = cachorro;
+        this.Similaridade = similaridade;
+    }
+}
\ No newline at end of file
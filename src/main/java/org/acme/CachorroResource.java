@@ -1,9 +1,19 @@
 package org.acme;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -20,22 +30,57 @@ import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
 
+import org.acme.audit.Auditor;
+import org.acme.foto.FotosRemovidas;
 import org.acme.idempotency.Idempotent;
+import org.acme.observability.JsonSqlStats;
+import org.acme.readmodel.CachorroAlterado;
+import org.acme.readmodel.CatalogoReadModel;
+import org.acme.recomendacao.IndiceRecomendacao;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.net.URI;
 import jakarta.ws.rs.core.UriBuilder;
 
 @Path("/v1/cachorros")
 @Consumes("application/json")
 @Produces("application/json")
+@JsonSqlStats
 public class CachorroResource {
 
+    @Inject
+    CatalogoReadModel readModel;
+
+    @Inject
+    Event<CachorroAlterado> cachorroAlterado;
+
+    @Inject
+    Event<FotosRemovidas> fotosRemovidas;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    Auditor auditor;
+
+    @Inject
+    IndiceRecomendacao recomendacao;
+
     @GET
     @Operation(summary = "Retorna todos os cachorros", description = "Retorna uma lista de cachorros")
     @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Cachorro.class, type = SchemaType.ARRAY)))
     @Timeout(3000)
     public Response getAll(){
+        if(readModel.isAtivo()) return Response.ok(readModel.listAll()).build();
         return Response.ok(Cachorro.listAll()).build();
     }
 
@@ -45,7 +90,7 @@ public class CachorroResource {
     @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Cachorro.class)))
     @APIResponse(responseCode = "404", description = "Não encontrado")
     public Response getById(@PathParam("id") long id){
-        Cachorro entity = Cachorro.findById(id);
+        Cachorro entity = readModel.isAtivo() ? readModel.findById(id) : Cachorro.findById(id);
         if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
         return Response.ok(entity).build();
     }
@@ -61,6 +106,19 @@ public class CachorroResource {
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("4") int size
     ){
+        if(readModel.isAtivo()){
+            CatalogoReadModel.Pagina pagina = readModel.search(q, sort, "desc".equalsIgnoreCase(direction), page, size);
+            if(pagina != null){
+                var response = new SearchCachorroResponse();
+                response.Cachorros = pagina.itens();
+                response.TotalCachorros = pagina.total();
+                response.TotalPages = pagina.totalPaginas();
+                response.HasMore = page < pagina.totalPaginas() - 1;
+                response.NextPage = response.HasMore ? UriBuilder.fromPath("/v1/cachorros/search").queryParam("q", q).queryParam("page", page + 1).queryParam("size", size).build().toString() : "";
+                return Response.ok(response).build();
+            }
+        }
+
         Sort sortObj = Sort.by(sort, "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending);
         PanacheQuery<Cachorro> query;
         if (q == null || q.isBlank()) {
@@ -80,6 +138,70 @@ public class CachorroResource {
         return Response.ok(response).build();
     }
 
+    @GET
+    @Path("/available")
+    @Operation(summary = "Lista os cachorros disponíveis para adoção", description = "Paginação por cursor: envie o NextCursor da resposta anterior em 'cursor'")
+    @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorCachorroResponse.class)))
+    public Response available(
+            @QueryParam("cursor") @DefaultValue("0") long cursor,
+            @QueryParam("size") @DefaultValue("20") int size
+    ){
+        int limit = Math.max(1, Math.min(size, 100));
+        // Usa o índice (disponibilidade, id): sem join com Adocao e sem offset.
+        // range é inclusivo, então traz limit + 1 linhas para saber se há próxima página.
+        List<Cachorro> cachorros = Cachorro.find("disponibilidade = ?1 and id > ?2", Sort.by("id"), Disponibilidade.DISPONIVEL, cursor)
+                .range(0, limit)
+                .list();
+
+        var response = new CursorCachorroResponse();
+        response.HasMore = cachorros.size() > limit;
+        response.Cachorros = response.HasMore ? cachorros.subList(0, limit) : cachorros;
+        response.NextCursor = response.HasMore ? response.Cachorros.get(limit - 1).id : null;
+        response.NextPage = response.HasMore ? UriBuilder.fromPath("/v1/cachorros/available").queryParam("cursor", response.NextCursor).queryParam("size", limit).build().toString() : "";
+
+        return Response.ok(response).build();
+    }
+
+    @GET
+    @Path("{id}/similares")
+    @Operation(summary = "Cachorros com ficha parecida", description = "Similaridade TF-IDF sobre temperamento, habilidades e história; cachorros adotados são ignorados")
+    @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CachorroRecomendado.class, type = SchemaType.ARRAY)))
+    @APIResponse(responseCode = "404", description = "Não encontrado")
+    public Response similares(@PathParam("id") long id, @QueryParam("k") @DefaultValue("5") int k){
+        if(!recomendacao.isAtivo()) return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Recomendações desabilitadas").build();
+        Cachorro entity = readModel.isAtivo() ? readModel.findById(id) : Cachorro.findById(id);
+        if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
+        return Response.ok(carregar(recomendacao.similares(id, Math.max(1, Math.min(k, 50))))).build();
+    }
+
+    @GET
+    @Path("/recomendacoes")
+    @Operation(summary = "Recomenda cachorros para um perfil", description = "Ex.: perfil=calmo e bom com crianças. Cachorros adotados são ignorados")
+    @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CachorroRecomendado.class, type = SchemaType.ARRAY)))
+    public Response recomendacoes(@QueryParam("perfil") String perfil, @QueryParam("k") @DefaultValue("5") int k){
+        if(!recomendacao.isAtivo()) return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Recomendações desabilitadas").build();
+        if(perfil == null || perfil.isBlank()) return Response.status(Response.Status.BAD_REQUEST).entity("O parâmetro perfil é obrigatório").build();
+        return Response.ok(carregar(recomendacao.recomendar(perfil, Math.max(1, Math.min(k, 50))))).build();
+    }
+
+    // Carrega os cachorros recomendados numa única consulta, mantendo a ordem por similaridade
+    private List<CachorroRecomendado> carregar(List<IndiceRecomendacao.Recomendacao> recomendacoes){
+        if(recomendacoes.isEmpty()) return List.of();
+        Map<Long, Cachorro> porId = new HashMap<>();
+        if(readModel.isAtivo()){
+            for(IndiceRecomendacao.Recomendacao r : recomendacoes) porId.put(r.id(), readModel.findById(r.id()));
+        } else {
+            List<Long> ids = recomendacoes.stream().map(IndiceRecomendacao.Recomendacao::id).toList();
+            for(Cachorro c : Cachorro.<Cachorro>list("id in ?1", ids)) porId.put(c.id, c);
+        }
+        List<CachorroRecomendado> result = new ArrayList<>();
+        for(IndiceRecomendacao.Recomendacao r : recomendacoes){
+            Cachorro c = porId.get(r.id());
+            if(c != null) result.add(new CachorroRecomendado(c, r.similaridade()));
+        }
+        return result;
+    }
+
     @POST
     @Operation(summary = "Cria um cachorro", description = "Requer chave de idempotência")
     @Parameter(name = "X-Idempotency-Key", in = ParameterIn.HEADER, required = true, description = "Chave única para garantir idempotência")
@@ -90,7 +212,10 @@ public class CachorroResource {
     @Retry(maxRetries = 2, delay = 500)
     @Transactional
     public Response insert(@Valid Cachorro cachorro){
+        cachorro.disponibilidade = Disponibilidade.DISPONIVEL;
         Cachorro.persist(cachorro);
+        cachorroAlterado.fire(CachorroAlterado.salvo(cachorro));
+        auditor.created("Cachorro", cachorro.id, cachorro);
         URI location = UriBuilder.fromPath("/v1/cachorros/{id}").build(cachorro.id);
         return Response.created(location).entity(cachorro).build();
     }
@@ -105,11 +230,24 @@ public class CachorroResource {
         Cachorro entity = Cachorro.findById(id);
         if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
 
-        if(Adocao.count("cachorro.id = ?1", id) > 0) {
+        // Adoções arquivadas também contam: o histórico não pode apontar para um cachorro que não existe mais
+        if(Adocao.count("cachorro.id = ?1", id) > 0 || AdocaoArquivada.count("cachorroId = ?1", id) > 0) {
             return Response.status(Response.Status.CONFLICT).entity("Possui adoções vinculadas").build();
         }
 
+        JsonNode antes = auditor.snapshot(entity);
+        // Os arquivos das fotos são apagados do disco após o commit
+        List<String> hashes = FotoCachorro.getEntityManager()
+                .createQuery("select f.hash from FotoCachorro f where f.cachorro.id = ?1", String.class)
+                .setParameter(1, id)
+                .getResultList();
+        FotoCachorro.delete("cachorro.id", id);
         Cachorro.deleteById(id);
+        // Flush aqui: se um DELETE concorrente já removeu a linha, vira 409 em vez de um segundo 204
+        Cachorro.flush();
+        if(!hashes.isEmpty()) fotosRemovidas.fire(new FotosRemovidas(hashes));
+        cachorroAlterado.fire(CachorroAlterado.removido(id));
+        auditor.deleted("Cachorro", id, antes);
         return Response.noContent().build();
     }
 
@@ -122,6 +260,7 @@ public class CachorroResource {
     public Response update(@PathParam("id") long id, @Valid Cachorro newCachorro){
         Cachorro entity = Cachorro.findById(id);
         if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
+        JsonNode antes = auditor.snapshot(entity);
 
         entity.nome = newCachorro.nome;
         entity.dataDeNascimento = newCachorro.dataDeNascimento;
@@ -135,6 +274,60 @@ public class CachorroResource {
         } else {
             entity.ficha = null;
         }
+        // Flush antes do snapshot da auditoria, como no PATCH: version e id de uma ficha nova já preenchidos
+        Cachorro.flush();
+        cachorroAlterado.fire(CachorroAlterado.salvo(entity));
+        auditor.updated("Cachorro", id, antes, entity);
+        return Response.ok(entity).build();
+    }
+
+    @PATCH
+    @Path("{id}")
+    @Consumes("application/merge-patch+json")
+    @Operation(summary = "Atualiza parcialmente um cachorro", description = "JSON Merge Patch (RFC 7396): só os campos enviados são alterados. Requer chave de idempotência e o campo version atual")
+    @Parameter(name = "X-Idempotency-Key", in = ParameterIn.HEADER, required = true, description = "Chave única para garantir idempotência")
+    @APIResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = Cachorro.class)))
+    @APIResponse(responseCode = "404", description = "Não encontrado")
+    @APIResponse(responseCode = "409", description = "O campo version não corresponde à versão atual")
+    @APIResponse(responseCode = "428", description = "Campo version ausente")
+    @Idempotent
+    @Transactional
+    public Response patch(@PathParam("id") long id, JsonNode patch){
+        if(patch == null || !patch.isObject()) return Response.status(Response.Status.BAD_REQUEST).entity("O corpo deve ser um objeto JSON").build();
+
+        Cachorro entity = Cachorro.findById(id);
+        if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
+
+        JsonNode version = patch.get("version");
+        if(version == null || !version.canConvertToLong()) return Response.status(Response.Status.PRECONDITION_REQUIRED).entity("O campo version é obrigatório").build();
+        if(!Objects.equals(entity.version, version.asLong())) return Response.status(Response.Status.CONFLICT).entity("O cachorro foi alterado por outra requisição").build();
+
+        JsonNode antes = auditor.snapshot(entity);
+        // id e version nunca vêm do cliente; a ficha é mesclada campo a campo (@JsonMerge)
+        ObjectNode campos = ((ObjectNode) patch).deepCopy();
+        campos.remove(List.of("id", "version", "disponibilidade"));
+        if(campos.get("ficha") instanceof ObjectNode ficha) ficha.remove("id");
+        try {
+            objectMapper.readerForUpdating(entity).readValue(campos);
+        } catch (IOException e) {
+            // o patch pode ter sido aplicado pela metade
+            QuarkusTransaction.setRollbackOnly();
+            return Response.status(Response.Status.BAD_REQUEST).entity("Patch inválido: " + e.getMessage()).build();
+        }
+
+        Set<ConstraintViolation<Cachorro>> violations = validator.validate(entity);
+        if(!violations.isEmpty()) throw new ConstraintViolationException(violations);
+
+        // Flush aqui para que um conflito de versão vire 409 antes da resposta
+        Cachorro.flush();
+        // A ficha é outra entidade e alterá-la não incrementa a version do cachorro. Se o flush não a
+        // incrementou (só a ficha mudou), incrementa agora (update ... where version = ?) para que patches
+        // concorrentes na ficha também deem 409; assim cada PATCH incrementa a version uma única vez
+        if(patch.has("ficha") && Objects.equals(entity.version, version.asLong())){
+            Cachorro.getEntityManager().lock(entity, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        }
+        cachorroAlterado.fire(CachorroAlterado.salvo(entity));
+        auditor.updated("Cachorro", id, antes, entity);
         return Response.ok(entity).build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package org.acme;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import java.util.ArrayList;
+import java.util.List;
+
+@RegisterForReflection
+public class CursorCachorroResponse {
+    public List<Cachorro> Cachorros = new ArrayList<>();
+    public boolean HasMore;
+    public Long NextCursor;
+    public String NextPage;
+}
\ No newline at end of file
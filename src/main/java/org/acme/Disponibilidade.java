@@ -0,0 +1,25 @@
+package org.acme;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import java.util.Collection;
+
+// Situação de adoção do cachorro, derivada dos status das suas adoções.
+@RegisterForReflection
+public enum Disponibilidade {
+    DISPONIVEL,
+    PENDENTE,
+    ADOTADO;
+
+    public static final String STATUS_APROVADA = "aprovada";
+    public static final String STATUS_PENDENTE = "pendente";
+    public static final String STATUS_REJEITADA = "rejeitada";
+
+    public static Disponibilidade derivar(Collection<String> statusDasAdocoes) {
+        boolean pendente = false;
+        for (String status : statusDasAdocoes) {
+            if (STATUS_APROVADA.equalsIgnoreCase(status)) return ADOTADO;
+            if (STATUS_PENDENTE.equalsIgnoreCase(status)) pendente = true;
+        }
+        return pendente ? PENDENTE : DISPONIVEL;
+    }
+}
\ No newline at end of file
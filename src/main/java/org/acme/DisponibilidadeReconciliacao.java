@@ -0,0 +1,78 @@
+package org.acme;
+
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.List;
+import org.acme.readmodel.CachorroAlterado;
+import org.jboss.logging.Logger;
+
+/**
+ * Corrige divergências entre Cachorro.disponibilidade e as adoções (dados importados,
+ * alterações feitas direto no banco etc.). Roda na inicialização e periodicamente.
+ */
+@ApplicationScoped
+public class DisponibilidadeReconciliacao {
+
+    private static final Logger LOG = Logger.getLogger(DisponibilidadeReconciliacao.class);
+
+    // Adoções aprovadas arquivadas continuam contando como adotado
+    private static final String APROVADA = "(exists (select 1 from Adocao a where a.cachorro = c and lower(a.status) = '" + Disponibilidade.STATUS_APROVADA + "')"
+            + " or exists (select 1 from AdocaoArquivada aa where aa.cachorroId = c.id and lower(aa.status) = '" + Disponibilidade.STATUS_APROVADA + "'))";
+    private static final String PENDENTE = "exists (select 1 from Adocao a where a.cachorro = c and lower(a.status) = '" + Disponibilidade.STATUS_PENDENTE + "')";
+
+    @Inject
+    Event<CachorroAlterado> cachorroAlterado;
+
+    // Antes do modelo de leitura carregar o catálogo
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION) StartupEvent ev) {
+        reconciliar();
+    }
+
+    @Scheduled(every = "${caoamigo.disponibilidade.reconciliacao:1h}", delayed = "1m")
+    void reconciliarPeriodicamente() {
+        reconciliar();
+    }
+
+    /**
+     * Retorna o número de cachorros corrigidos.
+     */
+    @Transactional
+    public int reconciliar() {
+        List<Long> corrigidos = new ArrayList<>();
+        corrigidos.addAll(atualizar(Disponibilidade.ADOTADO, APROVADA));
+        corrigidos.addAll(atualizar(Disponibilidade.PENDENTE, "not " + APROVADA + " and " + PENDENTE));
+        corrigidos.addAll(atualizar(Disponibilidade.DISPONIVEL, "not " + APROVADA + " and not " + PENDENTE));
+        if (corrigidos.isEmpty()) return 0;
+
+        LOG.warnf("Disponibilidade corrigida em %d cachorros", corrigidos.size());
+        // O update em massa não passa pelas entidades: avisa o modelo de leitura e o índice de recomendação
+        // (após o commit, como nos endpoints) com os cachorros recarregados
+        Cachorro.<Cachorro>find("select c from Cachorro c left join fetch c.ficha where c.id in ?1", corrigidos)
+                .list()
+                .forEach(c -> cachorroAlterado.fire(CachorroAlterado.salvo(c)));
+        return corrigidos.size();
+    }
+
+    // Retorna os ids corrigidos
+    private static List<Long> atualizar(Disponibilidade valor, String condicao) {
+        EntityManager em = Cachorro.getEntityManager();
+        List<Long> ids = em.createQuery("select c.id from Cachorro c where c.disponibilidade <> :valor and " + condicao, Long.class)
+                .setParameter("valor", valor)
+                .getResultList();
+        if (ids.isEmpty()) return ids;
+        em.createQuery("update Cachorro c set c.disponibilidade = :valor where c.id in :ids")
+                .setParameter("valor", valor)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return ids;
+    }
+}
\ No newline at end of file
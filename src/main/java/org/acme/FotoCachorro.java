@@ -0,0 +1,43 @@
+package org.acme;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+// Metadados de uma foto; o conteúdo fica no disco (FotoStore), endereçado pelo SHA-256.
+@Entity
+@Table(indexes = @Index(name = "idx_foto_hash", columnList = "hash"))
+@Schema(readOnly = true)
+public class FotoCachorro extends PanacheEntityBase {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long id;
+
+    @Column(nullable = false, length = 64)
+    public String hash;
+
+    @Column(nullable = false, length = 50)
+    public String contentType;
+
+    public long tamanho;
+
+    public LocalDateTime dataEnvio;
+
+    // Many-to-One: um cachorro pode ter várias fotos
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "cachorro_id")
+    @JsonIgnore
+    public Cachorro cachorro;
+
+    public FotoCachorro() {}
+
+    public FotoCachorro(Cachorro cachorro, String hash, String contentType, long tamanho) {
+        this.cachorro = cachorro;
+        this.hash = hash;
+        this.contentType = contentType;
+        this.tamanho = tamanho;
+        this.dataEnvio = LocalDateTime.now();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,233 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Sort;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+
+import org.acme.foto.FotoStore;
+import org.acme.foto.FotosRemovidas;
+import org.acme.idempotency.Idempotent;
+import org.acme.observability.JsonSqlStats;
+import org.jboss.resteasy.reactive.PathPart;
+import org.jboss.resteasy.reactive.RestForm;
+import org.jboss.resteasy.reactive.multipart.FileUpload;
+
+import jakarta.enterprise.event.Event;
+import jakarta.ws.rs.core.UriBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+@Path("/v1/cachorros/{id}/fotos")
+@Produces("application/json")
+public class FotoCachorroResource {
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Inject
+    FotoStore store;
+
+    @Inject
+    Event<FotosRemovidas> fotosRemovidas;
+
+    @GET
+    @Operation(summary = "Lista as fotos de um cachorro")
+    @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = FotoCachorro.class, type = SchemaType.ARRAY)))
+    @APIResponse(responseCode = "404", description = "Cachorro não encontrado")
+    @JsonSqlStats
+    public Response list(@PathParam("id") long id){
+        if(Cachorro.count("id", id) == 0) return Response.status(Response.Status.NOT_FOUND).build();
+        return Response.ok(FotoCachorro.list("cachorro.id", Sort.by("id"), id)).build();
+    }
+
+    @POST
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Operation(summary = "Envia uma foto (multipart)", description = "Campo 'foto'. Requer chave de idempotência")
+    @Parameter(name = "X-Idempotency-Key", in = ParameterIn.HEADER, required = true, description = "Chave única para garantir idempotência")
+    @APIResponse(responseCode = "201", content = @Content(schema = @Schema(implementation = FotoCachorro.class)))
+    @Idempotent
+    @JsonSqlStats
+    public Response uploadMultipart(@PathParam("id") long id, @RestForm("foto") FileUpload foto) throws IOException {
+        if(foto == null) return Response.status(Response.Status.BAD_REQUEST).entity("O campo 'foto' é obrigatório").build();
+        // O Quarkus já gravou o multipart em disco; aqui ele só é lido em blocos
+        try(InputStream in = Files.newInputStream(foto.uploadedFile())){
+            return salvar(id, foto.contentType(), in);
+        }
+    }
+
+    @POST
+    @Consumes("image/*")
+    @Operation(summary = "Envia uma foto (corpo binário)", description = "O corpo é gravado em disco conforme chega. Requer chave de idempotência")
+    @Parameter(name = "X-Idempotency-Key", in = ParameterIn.HEADER, required = true, description = "Chave única para garantir idempotência")
+    @APIResponse(responseCode = "201", content = @Content(schema = @Schema(implementation = FotoCachorro.class)))
+    @Idempotent
+    @JsonSqlStats
+    public Response uploadStream(@PathParam("id") long id, @HeaderParam("Content-Type") String contentType, InputStream body) throws IOException {
+        return salvar(id, contentType, body);
+    }
+
+    @GET
+    @Path("{fotoId}")
+    @Produces({"image/jpeg", "image/png", "image/gif", "image/webp"})
+    @Operation(summary = "Baixa uma foto", description = "Suporta Range, ETag forte e cache de longa duração")
+    @APIResponse(responseCode = "200", description = "Foto completa")
+    @APIResponse(responseCode = "206", description = "Intervalo solicitado")
+    @APIResponse(responseCode = "304", description = "Não modificada")
+    @APIResponse(responseCode = "404", description = "Não encontrada")
+    @APIResponse(responseCode = "416", description = "Intervalo inválido")
+    public Response download(@PathParam("id") long id, @PathParam("fotoId") long fotoId,
+                             @HeaderParam("Range") String range,
+                             @HeaderParam("If-None-Match") String ifNoneMatch,
+                             @HeaderParam("If-Range") String ifRange){
+        FotoCachorro foto = FotoCachorro.find("id = ?1 and cachorro.id = ?2", fotoId, id).firstResult();
+        if(foto == null) return Response.status(Response.Status.NOT_FOUND).build();
+        java.nio.file.Path arquivo = store.original(foto.hash);
+        if(!Files.exists(arquivo)) return Response.status(Response.Status.NOT_FOUND).build();
+        return servir(arquivo, foto.contentType, "\"" + foto.hash + "\"", foto.tamanho, range, ifNoneMatch, ifRange);
+    }
+
+    @GET
+    @Path("{fotoId}/miniatura")
+    @Produces("image/jpeg")
+    @Operation(summary = "Baixa a miniatura de uma foto", description = "Gerada na primeira requisição e mantida em cache no disco. Tamanhos: 128, 256 ou 512")
+    @APIResponse(responseCode = "200", description = "Miniatura JPEG")
+    @APIResponse(responseCode = "404", description = "Não encontrada ou formato sem suporte a miniatura")
+    public Response miniatura(@PathParam("id") long id, @PathParam("fotoId") long fotoId,
+                              @QueryParam("tamanho") @DefaultValue("256") int tamanho,
+                              @HeaderParam("If-None-Match") String ifNoneMatch) throws IOException {
+        if(!FotoStore.TAMANHOS_MINIATURA.contains(tamanho)) return Response.status(Response.Status.BAD_REQUEST).entity("Tamanho inválido").build();
+        FotoCachorro foto = FotoCachorro.find("id = ?1 and cachorro.id = ?2", fotoId, id).firstResult();
+        if(foto == null) return Response.status(Response.Status.NOT_FOUND).build();
+        String etag = "\"" + foto.hash + "-" + tamanho + "\"";
+        // Antes de gerar: um cliente com a miniatura em cache não deve custar um redimensionamento
+        if(naoModificada(etag, ifNoneMatch)) return naoModificada(etag);
+
+        java.nio.file.Path arquivo;
+        try {
+            arquivo = store.miniatura(foto.hash, tamanho);
+        } catch (NoSuchFileException e) {
+            arquivo = null;
+        }
+        if(arquivo == null) return Response.status(Response.Status.NOT_FOUND).entity("Miniatura indisponível").build();
+        return servir(arquivo, "image/jpeg", etag, Files.size(arquivo), null, ifNoneMatch, null);
+    }
+
+    @DELETE
+    @Path("{fotoId}")
+    @Operation(summary = "Remove uma foto", description = "Requer chave de idempotência")
+    @Parameter(name = "X-Idempotency-Key", in = ParameterIn.HEADER, required = true, description = "Chave única para garantir idempotência")
+    @Idempotent
+    @Transactional
+    public Response delete(@PathParam("id") long id, @PathParam("fotoId") long fotoId){
+        FotoCachorro foto = FotoCachorro.find("id = ?1 and cachorro.id = ?2", fotoId, id).firstResult();
+        if(foto == null) return Response.status(Response.Status.NOT_FOUND).build();
+        foto.delete();
+        fotosRemovidas.fire(new FotosRemovidas(List.of(foto.hash)));
+        return Response.noContent().build();
+    }
+
+    private Response salvar(long id, String contentType, InputStream in) throws IOException {
+        String tipo = contentType == null ? null : contentType.split(";")[0].trim().toLowerCase();
+        if(tipo == null || !FotoStore.CONTENT_TYPES.contains(tipo)) return Response.status(Response.Status.UNSUPPORTED_MEDIA_TYPE).entity("Formato de imagem não suportado").build();
+        if(Cachorro.count("id", id) == 0) return Response.status(Response.Status.NOT_FOUND).build();
+
+        FotoCachorro foto;
+        try {
+            // Transação curta, só para o registro: o upload acontece fora dela
+            foto = store.armazenar(in, armazenado -> QuarkusTransaction.requiringNew().call(() -> {
+                Cachorro cachorro = Cachorro.findById(id);
+                if(cachorro == null) return null;
+                FotoCachorro nova = new FotoCachorro(cachorro, armazenado.hash(), tipo, armazenado.tamanho());
+                nova.persist();
+                return nova;
+            }));
+        } catch (FotoStore.FotoMuitoGrandeException e) {
+            return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).entity(e.getMessage()).build();
+        }
+        if(foto == null) return Response.status(Response.Status.NOT_FOUND).build();
+
+        URI location = UriBuilder.fromPath("/v1/cachorros/{id}/fotos/{fotoId}").build(id, foto.id);
+        return Response.created(location).entity(foto).build();
+    }
+
+    // Path e PathPart são enviados pelo Vert.x com sendfile (FileChannel.transferTo), sem passar pelo heap,
+    // desde que nenhum WriterInterceptor se aplique ao método: por isso download e miniatura não têm @JsonSqlStats
+    private static Response servir(java.nio.file.Path arquivo, String contentType, String etag, long tamanho,
+                                   String range, String ifNoneMatch, String ifRange){
+        if(naoModificada(etag, ifNoneMatch)) return naoModificada(etag);
+
+        Intervalo intervalo = (range == null || (ifRange != null && !ifRange.equals(etag))) ? null : Intervalo.parse(range, tamanho);
+        if(intervalo == Intervalo.NAO_SATISFAZIVEL){
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header("Content-Range", "bytes */" + tamanho)
+                    .build();
+        }
+
+        Response.ResponseBuilder builder;
+        if(intervalo == null){
+            // PathPart também para o arquivo inteiro: com Path o resteasy aplica o header Range por conta própria,
+            // o que ignoraria o If-Range
+            builder = Response.ok(new PathPart(arquivo, 0, tamanho));
+        } else {
+            builder = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(new PathPart(arquivo, intervalo.inicio(), intervalo.fim() - intervalo.inicio() + 1))
+                    .header("Content-Range", "bytes " + intervalo.inicio() + "-" + intervalo.fim() + "/" + tamanho);
+        }
+        return builder.type(contentType)
+                .header("ETag", etag)
+                .header("Cache-Control", CACHE_CONTROL)
+                .header("Accept-Ranges", "bytes")
+                .build();
+    }
+
+    private static boolean naoModificada(String etag, String ifNoneMatch){
+        return ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"));
+    }
+
+    private static Response naoModificada(String etag){
+        return Response.notModified().header("ETag", etag).header("Cache-Control", CACHE_CONTROL).build();
+    }
+
+    // Um único intervalo de bytes (inclusivo). Múltiplos intervalos são ignorados e a foto é enviada inteira.
+    record Intervalo(long inicio, long fim) {
+        static final Intervalo NAO_SATISFAZIVEL = new Intervalo(-1, -1);
+
+        static Intervalo parse(String range, long tamanho){
+            if(!range.startsWith("bytes=") || range.contains(",")) return null;
+            String spec = range.substring("bytes=".length()).trim();
+            int traco = spec.indexOf('-');
+            if(traco < 0) return null;
+            try {
+                String inicio = spec.substring(0, traco).trim();
+                String fim = spec.substring(traco + 1).trim();
+                if(inicio.isEmpty()){
+                    // bytes=-N: os últimos N bytes
+                    long sufixo = Long.parseLong(fim);
+                    if(sufixo <= 0 || tamanho == 0) return NAO_SATISFAZIVEL;
+                    return new Intervalo(Math.max(0, tamanho - sufixo), tamanho - 1);
+                }
+                long primeiro = Long.parseLong(inicio);
+                if(primeiro >= tamanho) return NAO_SATISFAZIVEL;
+                long ultimo = fim.isEmpty() ? tamanho - 1 : Long.parseLong(fim);
+                if(ultimo < primeiro) return null;
+                return new Intervalo(primeiro, Math.min(ultimo, tamanho - 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -2,6 +2,8 @@ package org.acme;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Sort;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -20,7 +22,9 @@ import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
 
+import org.acme.audit.Auditor;
 import org.acme.idempotency.Idempotent;
+import org.acme.observability.JsonSqlStats;
 
 import java.util.List;
 import java.net.URI;
@@ -29,8 +33,12 @@ import jakarta.ws.rs.core.UriBuilder;
 @Path("/v1/racas")
 @Consumes("application/json")
 @Produces("application/json")
+@JsonSqlStats
 public class RacaResource {
 
+    @Inject
+    Auditor auditor;
+
     @GET
     @Operation(summary = "Retorna todas as raças")
     @APIResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Raca.class, type = SchemaType.ARRAY)))
@@ -91,6 +99,7 @@ public class RacaResource {
     @Transactional
     public Response insert(@Valid Raca raca){
         Raca.persist(raca);
+        auditor.created("Raca", raca.id, raca);
         URI location = UriBuilder.fromPath("/v1/racas/{id}").build(raca.id);
         return Response.created(location).entity(raca).build();
     }
@@ -105,11 +114,16 @@ public class RacaResource {
         Raca entity = Raca.findById(id);
         if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
 
-        if(Adocao.count("?1 MEMBER OF racas", entity) > 0){
+        // Adoções arquivadas também contam (idx_adocao_arquivada_raca)
+        if(Adocao.count("?1 MEMBER OF racas", entity) > 0 || AdocaoArquivada.count("?1 MEMBER OF racaIds", id) > 0){
             return Response.status(Response.Status.CONFLICT).entity("Raça em uso").build();
         }
 
+        JsonNode antes = auditor.snapshot(entity);
         Raca.deleteById(id);
+        // Flush aqui: se um DELETE concorrente já removeu a linha, vira 409 em vez de um segundo 204
+        Raca.flush();
+        auditor.deleted("Raca", id, antes);
         return Response.noContent().build();
     }
 
@@ -122,8 +136,12 @@ public class RacaResource {
     public Response update(@PathParam("id") long id, @Valid Raca newRaca){
         Raca entity = Raca.findById(id);
         if(entity == null) return Response.status(Response.Status.NOT_FOUND).build();
+        JsonNode antes = auditor.snapshot(entity);
         entity.nome = newRaca.nome;
         entity.descricao = newRaca.descricao;
+        // Flush antes da auditoria, como nos outros updates: um erro do banco aparece aqui, e não no commit
+        Raca.flush();
+        auditor.updated("Raca", id, antes, entity);
         return Response.status(Response.Status.OK).entity(entity).build();
     }
 }
\ No newline at end of file
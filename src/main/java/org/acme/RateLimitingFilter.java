@@ -2,6 +2,8 @@ package org.acme;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.Priorities;
@@ -11,18 +13,33 @@ import jakarta.ws.rs.ext.Provider;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+// Roda antes do IdempotencyFilter (HEADER_DECORATOR): requisições barradas pelo limite não reservam a chave de idempotência.
+// Classes que o Caffeine gera para expireAfterWrite e instancia por reflexão (executável nativo)
+@RegisterForReflection(classNames = {
+        "com.github.benmanes.caffeine.cache.SSW",
+        "com.github.benmanes.caffeine.cache.PSW"
+})
 @Provider
 @ApplicationScoped
-@Priority(Priorities.HEADER_DECORATOR)
+@Priority(Priorities.HEADER_DECORATOR - 100)
 public class RateLimitingFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
-    private static final int MAX_REQUESTS = 10;
-    private static final int WINDOW_SECONDS = 60;
+    @ConfigProperty(name = "caoamigo.rate-limit.max-requests", defaultValue = "10")
+    int maxRequests;
 
-    private final Cache<String, AtomicInteger> requestCounts = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofSeconds(WINDOW_SECONDS))
-            .build();
+    @ConfigProperty(name = "caoamigo.rate-limit.window", defaultValue = "60s")
+    Duration window;
+
+    private Cache<String, AtomicInteger> requestCounts;
+
+    @PostConstruct
+    void init() {
+        requestCounts = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
 
     @Override
     public void filter(ContainerRequestContext ctx) throws IOException {
@@ -34,12 +51,12 @@ public class RateLimitingFilter implements ContainerRequestFilter, ContainerResp
         AtomicInteger count = requestCounts.get(ip, k -> new AtomicInteger(0));
         int current = count.incrementAndGet();
 
-        ctx.setProperty("rate-limit-remaining", Math.max(0, MAX_REQUESTS - current));
+        ctx.setProperty("rate-limit-remaining", Math.max(0, maxRequests - current));
 
-        if (current > MAX_REQUESTS) {
+        if (current > maxRequests) {
             ctx.abortWith(Response.status(429)
-                    .entity("Limite de requisições excedido. Tente novamente em 1 minuto.")
-                    .header("Retry-After", WINDOW_SECONDS)
+                    .entity("Limite de requisições excedido. Tente novamente em " + window.toSeconds() + " segundos.")
+                    .header("Retry-After", window.toSeconds())
                     .build());
         }
     }
@@ -48,7 +65,7 @@ public class RateLimitingFilter implements ContainerRequestFilter, ContainerResp
     public void filter(ContainerRequestContext req, ContainerResponseContext res) {
         Object remaining = req.getProperty("rate-limit-remaining");
         if (remaining != null) {
-            res.getHeaders().add("X-RateLimit-Limit", MAX_REQUESTS);
+            res.getHeaders().add("X-RateLimit-Limit", maxRequests);
             res.getHeaders().add("X-RateLimit-Remaining", remaining);
         }
     }
@@ -1,10 +1,13 @@
 package org.acme;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import java.util.ArrayList;
 import java.util.List;
 
-public class SearchAdocaoResponse {
-    public List<Adocao> Adocoes = new ArrayList<>();
+// Adocoes traz Adocao, ou AdocaoResumo com includeArchived=true (ativas e arquivadas na mesma lista)
+@RegisterForReflection
+public class SearchAdocaoResponse<T> {
+    public List<T> Adocoes = new ArrayList<>();
     public long TotalAdocoes;
     public int TotalPages;
     public boolean HasMore;
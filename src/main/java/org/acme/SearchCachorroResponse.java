@@ -1,8 +1,10 @@
 package org.acme;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import java.util.ArrayList;
 import java.util.List;
 
+@RegisterForReflection
 public class SearchCachorroResponse {
     public List<Cachorro> Cachorros = new ArrayList<>();
     public long TotalCachorros;
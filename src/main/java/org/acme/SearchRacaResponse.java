@@ -1,8 +1,10 @@
 package org.acme;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import java.util.ArrayList;
 import java.util.List;
 
+@RegisterForReflection
 public class SearchRacaResponse {
     public List<Raca> Racas = new ArrayList<>();
     public long TotalRacas;
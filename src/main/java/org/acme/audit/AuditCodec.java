@@ -0,0 +1,99 @@
+package org.acme.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binário de um registro (big-endian):
+ * <pre>
+ * int    tamanho do corpo (0 = fim do segmento)
+ * int    CRC32C do corpo
+ * --- corpo ---
+ * long   timestamp (epoch millis)
+ * byte   operação (ordinal de AuditOperation)
+ * long   id da entidade
+ * short  + bytes UTF-8  entidade
+ * short  + bytes UTF-8  chave de idempotência (-1 = ausente)
+ * int    + bytes UTF-8  diff em JSON (-1 = ausente)
+ * </pre>
+ */
+final class AuditCodec {
+
+    static final int HEADER_SIZE = 8;
+    static final int MAX_DIFF_BYTES = 64 * 1024;
+
+    private AuditCodec() {}
+
+    static byte[] encode(AuditRecord record) {
+        byte[] entity = record.entity().getBytes(StandardCharsets.UTF_8);
+        byte[] key = record.idempotencyKey() == null ? null : truncate(record.idempotencyKey().getBytes(StandardCharsets.UTF_8), Short.MAX_VALUE);
+        byte[] diff = record.diff() == null ? null : truncate(record.diff().getBytes(StandardCharsets.UTF_8), MAX_DIFF_BYTES);
+
+        int bodySize = 8 + 1 + 8 + 2 + entity.length + 2 + (key == null ? 0 : key.length) + 4 + (diff == null ? 0 : diff.length);
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+        buf.putInt(bodySize);
+        buf.putInt(0); // CRC preenchido abaixo
+        buf.putLong(record.timestamp().toEpochMilli());
+        buf.put((byte) record.operation().ordinal());
+        buf.putLong(record.entityId());
+        buf.putShort((short) entity.length).put(entity);
+        if (key == null) buf.putShort((short) -1); else buf.putShort((short) key.length).put(key);
+        if (diff == null) buf.putInt(-1); else buf.putInt(diff.length).put(diff);
+
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), HEADER_SIZE, bodySize);
+        buf.putInt(4, (int) crc.getValue());
+        return buf.array();
+    }
+
+    /**
+     * Lê o registro na posição atual do buffer, avançando-o. Retorna null no fim do segmento
+     * ou se o registro estiver incompleto/corrompido (ex.: queda durante a escrita).
+     */
+    static AuditRecord decode(ByteBuffer buf) {
+        if (buf.remaining() < HEADER_SIZE) return null;
+        int start = buf.position();
+        int bodySize = buf.getInt();
+        int expectedCrc = buf.getInt();
+        if (bodySize <= 0 || bodySize > buf.remaining()) {
+            buf.position(start);
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        ByteBuffer body = buf.slice(buf.position(), bodySize);
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            buf.position(start);
+            return null;
+        }
+
+        long timestamp = body.getLong();
+        AuditOperation operation = AuditOperation.values()[body.get()];
+        long entityId = body.getLong();
+        String entity = readString(body, body.getShort());
+        String key = readString(body, body.getShort());
+        String diff = readString(body, body.getInt());
+        buf.position(buf.position() + bodySize);
+        return new AuditRecord(entity, entityId, operation, key, Instant.ofEpochMilli(timestamp), diff);
+    }
+
+    private static String readString(ByteBuffer buf, int length) {
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Corta em no máximo max bytes sem partir um caractere UTF-8 ao meio
+    static byte[] truncate(byte[] bytes, int max) {
+        if (bytes.length <= max) return bytes;
+        int end = max;
+        // bytes[end] é o primeiro que fica de fora; se for de continuação (10xxxxxx), o caractere começou antes
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) end--;
+        byte[] result = new byte[end];
+        System.arraycopy(bytes, 0, result, 0, end);
+        return result;
+    }
+}
@@ -0,0 +1,26 @@
+package org.acme.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.Instant;
+
+// Mutação registrada por um *Resource; entregue ao AuditJournal somente após o commit.
+public class AuditEvent {
+    public final String entity;
+    public final long entityId;
+    public final AuditOperation operation;
+    public final String idempotencyKey;
+    public final Instant timestamp;
+    // Estado antes/depois; o diff é calculado pela thread do journal, fora da requisição
+    final JsonNode before;
+    final JsonNode after;
+
+    AuditEvent(String entity, long entityId, AuditOperation operation, String idempotencyKey, JsonNode before, JsonNode after) {
+        this.entity = entity;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.idempotencyKey = idempotencyKey;
+        this.timestamp = Instant.now();
+        this.before = before;
+        this.after = after;
+    }
+}
@@ -0,0 +1,259 @@
+package org.acme.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Journal de auditoria append-only em segmentos mapeados em memória.
+ *
+ * As requisições só enfileiram o evento (fila sem lock) após o commit; uma única thread
+ * drena a fila, calcula o diff, grava no segmento e faz o fsync conforme a política configurada.
+ * A fila é limitada (caoamigo.audit.queue-capacity). Cheia, o evento é descartado e contado em
+ * {@link #dropped()}, com um WARN: a transação já foi commitada, e bloquear só seguraria a
+ * requisição sem salvar o registro se o disco não voltar a acompanhar.
+ */
+@Startup
+@ApplicationScoped
+public class AuditJournal {
+
+    private static final Logger LOG = Logger.getLogger(AuditJournal.class);
+
+    public enum FsyncPolicy {
+        // fsync após cada lote drenado da fila
+        ALWAYS,
+        // fsync no máximo a cada caoamigo.audit.fsync-interval
+        INTERVAL,
+        // fica a cargo do sistema operacional (e da rotação/encerramento)
+        NEVER
+    }
+
+    @ConfigProperty(name = "caoamigo.audit.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "caoamigo.audit.dir", defaultValue = "data/audit")
+    String dir;
+
+    @ConfigProperty(name = "caoamigo.audit.segment-size", defaultValue = "16M")
+    MemorySize segmentSize;
+
+    @ConfigProperty(name = "caoamigo.audit.retention-segments", defaultValue = "10")
+    int retentionSegments;
+
+    @ConfigProperty(name = "caoamigo.audit.fsync", defaultValue = "interval")
+    FsyncPolicy fsync;
+
+    @ConfigProperty(name = "caoamigo.audit.fsync-interval", defaultValue = "1s")
+    Duration fsyncInterval;
+
+    @ConfigProperty(name = "caoamigo.audit.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+
+    private final Queue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    // Tamanho da fila (o size() da ConcurrentLinkedQueue é O(n)) e eventos descartados com ela cheia
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running;
+    private Thread flusher;
+
+    // Acessados apenas pela thread do flusher (e pelo stop(), depois do join)
+    private Path directory;
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private boolean dirty;
+    private long lastForce;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        directory = Path.of(dir);
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = AuditJournalReader.segments(directory);
+            if (segments.isEmpty()) {
+                openSegment(1);
+            } else {
+                openSegment(segmentNumber(segments.get(segments.size() - 1)));
+                recover();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o journal de auditoria em " + directory, e);
+        }
+        running = true;
+        flusher = new Thread(this::run, "audit-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher == null) return;
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Segmento e canal são da thread do flusher: se ela ainda não saiu, não dá para mexer neles daqui
+        if (flusher.isAlive()) {
+            LOG.warnf("O flusher do journal de auditoria não terminou; %d eventos na fila não foram gravados", queued.get());
+            return;
+        }
+        drain();
+        force();
+        closeSegment();
+    }
+
+    void onEvent(@Observes(during = TransactionPhase.AFTER_SUCCESS) AuditEvent event) {
+        if (!running) return;
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            long total = dropped.incrementAndGet();
+            if (total == 1 || total % 1000 == 0) {
+                LOG.warnf("Fila do journal de auditoria cheia (%d eventos); %d eventos descartados até agora", queueCapacity, total);
+            }
+            return;
+        }
+        queue.offer(event);
+        LockSupport.unpark(flusher);
+    }
+
+    // Eventos descartados desde o início porque a fila estava cheia
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public AuditJournalReader reader() {
+        return new AuditJournalReader(Path.of(dir));
+    }
+
+    private void run() {
+        long parkNanos = fsyncInterval.toNanos();
+        while (running) {
+            if (queue.isEmpty()) LockSupport.parkNanos(this, parkNanos);
+            drain();
+            if (fsync == FsyncPolicy.ALWAYS
+                    || (fsync == FsyncPolicy.INTERVAL && System.nanoTime() - lastForce >= parkNanos)) {
+                force();
+            }
+        }
+    }
+
+    private void drain() {
+        AuditEvent event;
+        while ((event = queue.poll()) != null) {
+            queued.decrementAndGet();
+            try {
+                append(AuditCodec.encode(new AuditRecord(event.entity, event.entityId, event.operation,
+                        event.idempotencyKey, event.timestamp, diff(event))));
+            } catch (RuntimeException | IOException e) {
+                LOG.errorf(e, "Falha ao gravar auditoria de %s#%d", event.entity, event.entityId);
+            }
+        }
+    }
+
+    private void append(byte[] record) throws IOException {
+        if (record.length > segment.remaining()) {
+            if (record.length > segmentSize.asLongValue()) {
+                LOG.warnf("Registro de auditoria com %d bytes excede o tamanho do segmento; descartado", record.length);
+                return;
+            }
+            rotate();
+        }
+        segment.put(record);
+        dirty = true;
+    }
+
+    private void force() {
+        if (dirty && segment != null) {
+            segment.force();
+            dirty = false;
+        }
+        lastForce = System.nanoTime();
+    }
+
+    private void rotate() throws IOException {
+        force();
+        closeSegment();
+        openSegment(segmentNumber + 1);
+        applyRetention();
+    }
+
+    private void openSegment(long number) throws IOException {
+        segmentNumber = number;
+        Path path = directory.resolve(String.format("%s%020d%s", AuditJournalReader.SEGMENT_PREFIX, number, AuditJournalReader.SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // O arquivo é pré-alocado com zeros; um tamanho 0 marca o fim dos registros
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize.asLongValue());
+    }
+
+    private void closeSegment() {
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            LOG.warn("Falha ao fechar o segmento de auditoria", e);
+        }
+    }
+
+    // Posiciona o segmento após o último registro íntegro
+    private void recover() {
+        int records = 0;
+        while (AuditCodec.decode(segment) != null) records++;
+        LOG.debugf("Journal de auditoria reaberto no segmento %d com %d registros", segmentNumber, records);
+    }
+
+    private void applyRetention() throws IOException {
+        List<Path> segments = AuditJournalReader.segments(directory);
+        for (int i = 0; i < segments.size() - retentionSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(AuditJournalReader.SEGMENT_PREFIX.length(), name.length() - AuditJournalReader.SEGMENT_SUFFIX.length()));
+    }
+
+    // CREATE/DELETE guardam o estado completo; UPDATE guarda só os campos alterados (no formato JSON Merge Patch).
+    // Um campo ausente é uma associação lazy não carregada (ver Auditor.snapshot): ausente só no "antes", entra
+    // com o valor novo; ausente no "depois", fica de fora, porque não se sabe se mudou.
+    static String diff(AuditEvent event) {
+        if (event.before == null) return event.after == null ? null : event.after.toString();
+        if (event.after == null) return event.before.toString();
+
+        ObjectNode patch = JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = event.after.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!field.getValue().equals(event.before.get(field.getKey()))) patch.set(field.getKey(), field.getValue());
+        }
+        return patch.toString();
+    }
+}
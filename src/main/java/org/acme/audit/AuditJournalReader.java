@@ -0,0 +1,78 @@
+package org.acme.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Lê os segmentos do journal de auditoria em ordem. Pode ser usado com a aplicação rodando:
+ * um registro ainda sendo escrito falha no CRC e é tratado como fim do segmento.
+ *
+ * Uso pela linha de comando:
+ * <pre>java -cp target/quarkus-app/app/API-CaoAmigo-1.0.0-SNAPSHOT.jar org.acme.audit.AuditJournalReader data/audit [entidade [id]]</pre>
+ */
+public class AuditJournalReader {
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path dir;
+
+    public AuditJournalReader(Path dir) {
+        this.dir = dir;
+    }
+
+    public void scan(Consumer<AuditRecord> consumer) throws IOException {
+        for (Path segment : segments(dir)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                AuditRecord record;
+                while ((record = AuditCodec.decode(buf)) != null) {
+                    consumer.accept(record);
+                }
+            }
+        }
+    }
+
+    public List<AuditRecord> find(String entity, long entityId) throws IOException {
+        List<AuditRecord> result = new ArrayList<>();
+        scan(r -> {
+            if (r.entity().equals(entity) && r.entityId() == entityId) result.add(r);
+        });
+        return result;
+    }
+
+    static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            // O número do segmento tem largura fixa, então a ordem lexicográfica é a cronológica
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: AuditJournalReader <diretório> [entidade [id]]");
+            System.exit(1);
+        }
+        String entity = args.length > 1 ? args[1] : null;
+        Long entityId = args.length > 2 ? Long.valueOf(args[2]) : null;
+        new AuditJournalReader(Path.of(args[0])).scan(r -> {
+            if (entity != null && !entity.equalsIgnoreCase(r.entity())) return;
+            if (entityId != null && entityId != r.entityId()) return;
+            System.out.println(r);
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package org.acme.audit;
+
+public enum AuditOperation {
+    CREATE,
+    UPDATE,
+    DELETE,
+    // Lote de registros movido para o arquivo (ArquivamentoAdocoes); o journal grava o ordinal, então novos valores vão no fim
+    ARCHIVE
+}
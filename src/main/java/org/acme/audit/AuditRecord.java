@@ -0,0 +1,15 @@
+package org.acme.audit;
+
+import java.time.Instant;
+
+// Um registro lido do journal. entityId é -1 quando o id não era conhecido; idempotencyKey e diff podem ser null.
+public record AuditRecord(String entity, long entityId, AuditOperation operation, String idempotencyKey,
+                          Instant timestamp, String diff) {
+
+    @Override
+    public String toString() {
+        return timestamp + " " + operation + " " + entity + "#" + entityId
+                + (idempotencyKey == null ? "" : " key=" + idempotencyKey)
+                + (diff == null ? "" : " " + diff);
+    }
+}
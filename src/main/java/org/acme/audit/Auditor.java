@@ -0,0 +1,97 @@
+package org.acme.audit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import java.util.List;
+import org.hibernate.Hibernate;
+
+/**
+ * Usado pelos endpoints de escrita para registrar mutações no journal de auditoria.
+ * Só tira um snapshot JSON da entidade; a escrita em disco acontece após o commit, em outra thread.
+ * O snapshot é tirado dentro da requisição e não pode gerar SQL: associações lazy ainda não carregadas
+ * (ex.: Adocao.racas num DELETE) ficam fora dele em vez de serem inicializadas.
+ */
+@ApplicationScoped
+public class Auditor {
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "X-Idempotency-Key";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    HttpServerRequest request;
+
+    @Inject
+    Event<AuditEvent> events;
+
+    // Cópia do ObjectMapper da aplicação que pula proxies e coleções lazy não inicializados
+    private ObjectMapper snapshotMapper;
+
+    @PostConstruct
+    void init() {
+        snapshotMapper = objectMapper.copy().registerModule(new SimpleModule().setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc, List<BeanPropertyWriter> beanProperties) {
+                beanProperties.replaceAll(SomenteCarregado::new);
+                return beanProperties;
+            }
+        }));
+    }
+
+    public JsonNode snapshot(Object entity) {
+        return entity == null ? null : snapshotMapper.valueToTree(entity);
+    }
+
+    public void created(String entity, Long id, Object after) {
+        fire(entity, id, AuditOperation.CREATE, null, snapshot(after));
+    }
+
+    public void updated(String entity, Long id, JsonNode before, Object after) {
+        fire(entity, id, AuditOperation.UPDATE, before, snapshot(after));
+    }
+
+    public void deleted(String entity, Long id, JsonNode before) {
+        fire(entity, id, AuditOperation.DELETE, before, null);
+    }
+
+    /**
+     * Um registro por lote arquivado, com os ids movidos (entityId -1). Chamado por jobs agendados,
+     * fora de uma requisição HTTP, por isso sem chave de idempotência.
+     */
+    public void archived(String entity, String destination, List<Long> ids) {
+        ObjectNode after = objectMapper.createObjectNode().put("destino", destination);
+        ids.forEach(after.putArray("ids")::add);
+        events.fire(new AuditEvent(entity, -1, AuditOperation.ARCHIVE, null, null, after));
+    }
+
+    private void fire(String entity, Long id, AuditOperation operation, JsonNode before, JsonNode after) {
+        events.fire(new AuditEvent(entity, id == null ? -1 : id, operation,
+                request.getHeader(IDEMPOTENCY_KEY_HEADER), before, after));
+    }
+
+    // Ler o campo devolve o proxy ou a PersistentCollection sem carregá-los; só a serialização carregaria
+    private static class SomenteCarregado extends BeanPropertyWriter {
+        SomenteCarregado(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            if (Hibernate.isInitialized(get(bean))) super.serializeAsField(bean, gen, prov);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.acme.exception;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.util.List;
+
+@Provider
+public class OptimisticLockExceptionMapper implements ExceptionMapper<OptimisticLockException> {
+
+    @Override
+    public Response toResponse(OptimisticLockException exception) {
+        return Response.status(409)
+                .entity(new ValidationExceptionMapper.ErrorBody(409, "Conflito de Versão",
+                        List.of("O registro foi alterado por outra requisição. Recarregue e tente novamente.")))
+                .build();
+    }
+}
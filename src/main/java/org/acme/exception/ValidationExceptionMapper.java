@@ -1,5 +1,6 @@
 package org.acme.exception;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.ws.rs.core.Response;
@@ -32,6 +33,7 @@ public class ValidationExceptionMapper implements ExceptionMapper<ConstraintViol
                 .build();
     }
 
+    @RegisterForReflection
     public static class ErrorBody {
         public int status;
         public String message;
@@ -0,0 +1,213 @@
+package org.acme.foto;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import javax.imageio.ImageIO;
+import org.acme.FotoCachorro;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Armazenamento de fotos em disco, endereçado pelo conteúdo (SHA-256). Uploads são gravados
+ * em blocos num arquivo temporário e movidos atomicamente; nada é mantido inteiro no heap.
+ */
+@ApplicationScoped
+public class FotoStore {
+
+    private static final Logger LOG = Logger.getLogger(FotoStore.class);
+
+    public static final Set<String> CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+    public static final Set<Integer> TAMANHOS_MINIATURA = Set.of(128, 256, 512);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /*
+     * Serializa, por hash, "mover o arquivo + gravar o registro" contra "contar referências + apagar".
+     * Sem isso, a remoção de uma foto pode apagar o arquivo que um upload concorrente do mesmo
+     * conteúdo acabou de deduplicar.
+     */
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    @ConfigProperty(name = "caoamigo.fotos.dir", defaultValue = "data/fotos")
+    String dir;
+
+    @ConfigProperty(name = "caoamigo.fotos.max-bytes", defaultValue = "10485760")
+    long maxBytes;
+
+    private Path originais;
+    private Path miniaturas;
+    private Path temporarios;
+
+    public record Armazenado(String hash, long tamanho) {}
+
+    public static class FotoMuitoGrandeException extends IOException {
+        public FotoMuitoGrandeException(long maxBytes) {
+            super("A foto ultrapassa o limite de " + maxBytes + " bytes");
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        Path base = Path.of(dir);
+        originais = base.resolve("originais");
+        miniaturas = base.resolve("miniaturas");
+        temporarios = base.resolve("tmp");
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new ReentrantLock();
+        try {
+            Files.createDirectories(originais);
+            Files.createDirectories(miniaturas);
+            Files.createDirectories(temporarios);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório de fotos " + base, e);
+        }
+    }
+
+    /**
+     * Grava o conteúdo e chama {@code registrar} com o hash, ainda sob o lock desse hash; o registro
+     * deve ser gravado e commitado dentro do callback. Se ele retornar null, nada passou a referenciar
+     * o arquivo e ele é removido caso nenhuma outra foto o use.
+     */
+    public <T> T armazenar(InputStream in, Function<Armazenado, T> registrar) throws IOException {
+        Path tmp = Files.createTempFile(temporarios, "upload-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            long total = 0;
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    total += n;
+                    if (total > maxBytes) throw new FotoMuitoGrandeException(maxBytes);
+                    sha256.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                }
+            }
+            Armazenado armazenado = new Armazenado(HexFormat.of().formatHex(sha256.digest()), total);
+            Path destino = original(armazenado.hash());
+            ReentrantLock lock = lock(armazenado.hash());
+            lock.lock();
+            try {
+                Files.createDirectories(destino.getParent());
+                try {
+                    Files.move(tmp, destino, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Mesmo conteúdo já armazenado (deduplicação)
+                }
+                T registro = registrar.apply(armazenado);
+                if (registro == null) removerSemReferencias(armazenado.hash());
+                return registro;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public Path original(String hash) {
+        // Dois níveis de diretório evitam pastas com milhares de arquivos
+        return originais.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Caminho da miniatura em cache, gerando-a na primeira chamada.
+     * Retorna null se o formato não puder ser lido pelo ImageIO (ex.: webp) e lança
+     * NoSuchFileException se o original não existir mais.
+     */
+    public Path miniatura(String hash, int tamanho) throws IOException {
+        Path destino = miniaturas.resolve(hash + "-" + tamanho + ".jpg");
+        if (Files.exists(destino)) return destino;
+
+        // ImageIO.read(File) lança IIOException, e não NoSuchFileException, para arquivo inexistente
+        Path origem = original(hash);
+        if (!Files.exists(origem)) throw new NoSuchFileException(origem.toString());
+        BufferedImage imagem = ImageIO.read(origem.toFile());
+        if (imagem == null) return null;
+
+        double escala = Math.min(1.0, (double) tamanho / Math.max(imagem.getWidth(), imagem.getHeight()));
+        int largura = Math.max(1, (int) Math.round(imagem.getWidth() * escala));
+        int altura = Math.max(1, (int) Math.round(imagem.getHeight() * escala));
+        BufferedImage reduzida = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = reduzida.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(imagem, 0, 0, largura, altura, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+
+        // Gerações concorrentes da mesma miniatura produzem o mesmo arquivo; a última substitui
+        Path tmp = Files.createTempFile(temporarios, "thumb-", ".tmp");
+        try {
+            ImageIO.write(reduzida, "jpg", tmp.toFile());
+            Files.move(tmp, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return destino;
+    }
+
+    void onFotosRemovidas(@Observes(during = TransactionPhase.AFTER_SUCCESS) FotosRemovidas evento) {
+        for (String hash : evento.hashes) {
+            ReentrantLock lock = lock(hash);
+            lock.lock();
+            try {
+                removerSemReferencias(hash);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Chamado com o lock do hash: o mesmo conteúdo pode estar associado a outras fotos
+    private void removerSemReferencias(String hash) {
+        long referencias = QuarkusTransaction.requiringNew().call(() -> FotoCachorro.count("hash", hash));
+        if (referencias == 0) remover(hash);
+    }
+
+    private ReentrantLock lock(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    private void remover(String hash) {
+        try {
+            Files.deleteIfExists(original(hash));
+            for (int tamanho : TAMANHOS_MINIATURA) {
+                Files.deleteIfExists(miniaturas.resolve(hash + "-" + tamanho + ".jpg"));
+            }
+        } catch (IOException e) {
+            LOG.warnf(e, "Não foi possível remover os arquivos da foto %s", hash);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
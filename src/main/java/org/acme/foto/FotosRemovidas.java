@@ -0,0 +1,12 @@
+package org.acme.foto;
+
+import java.util.Collection;
+
+// Disparado quando registros de FotoCachorro são apagados; os arquivos só são removidos após o commit.
+public class FotosRemovidas {
+    public final Collection<String> hashes;
+
+    public FotosRemovidas(Collection<String> hashes) {
+        this.hashes = hashes;
+    }
+}
@@ -2,6 +2,8 @@ package org.acme.idempotency;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.Priorities;
@@ -12,7 +14,13 @@ import jakarta.ws.rs.ext.Provider;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
+// Classes que o Caffeine gera para maximumWeight + expiração variável e instancia por reflexão (executável nativo)
+@RegisterForReflection(classNames = {
+        "com.github.benmanes.caffeine.cache.SSMWA",
+        "com.github.benmanes.caffeine.cache.PSAMW"
+})
 @Provider
 @ApplicationScoped
 @Priority(Priorities.HEADER_DECORATOR)
@@ -20,6 +28,8 @@ public class IdempotencyFilter implements ContainerRequestFilter, ContainerRespo
 
     private static final String IDEMPOTENCY_KEY_HEADER = "X-Idempotency-Key";
     private static final String IDEMPOTENT_CONTEXT_PROPERTY = "idempotent-context";
+    // Se a resposta nunca chegar ao filtro, a reserva da chave se desfaz sozinha
+    private static final Duration IN_FLIGHT_TTL = Duration.ofMinutes(1);
 
     private final Cache<String, IdempotencyRecord> cache;
 
@@ -27,9 +37,27 @@ public class IdempotencyFilter implements ContainerRequestFilter, ContainerRespo
     ResourceInfo resourceInfo;
 
     public IdempotencyFilter() {
+        // Reservas pesam zero: o limite só conta respostas gravadas, e uma reserva nunca é despejada
+        // por tamanho no meio da requisição (o que deixaria uma segunda execução passar)
         this.cache = Caffeine.newBuilder()
-                .maximumSize(1000)
-                .expireAfterWrite(Duration.ofHours(1))
+                .maximumWeight(1000)
+                .weigher((String key, IdempotencyRecord record) -> record.isInFlight() ? 0 : 1)
+                .expireAfter(new Expiry<String, IdempotencyRecord>() {
+                    @Override
+                    public long expireAfterCreate(String key, IdempotencyRecord record, long currentTime) {
+                        return record.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+                        return record.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
                 .build();
     }
 
@@ -58,9 +86,19 @@ public class IdempotencyFilter implements ContainerRequestFilter, ContainerRespo
                 requestContext.getUriInfo().getPath() + ":" +
                 idempotencyKey;
 
-        IdempotencyRecord record = cache.getIfPresent(cacheKey);
+        // Reserva a chave atomicamente: entre requisições concorrentes com a mesma chave só uma executa o recurso
+        IdempotentContext context = new IdempotentContext(cacheKey, annotation.expireAfter());
+        IdempotencyRecord record = cache.asMap().putIfAbsent(cacheKey, context.reserva);
 
         if (record != null) {
+            if (record.isInFlight()) {
+                requestContext.abortWith(Response.status(409)
+                        .entity("Uma requisição com esta X-Idempotency-Key ainda está em processamento.")
+                        .header("Retry-After", 1)
+                        .build());
+                return;
+            }
+
             // Ajuste para Replay: Retorna 200 em vez de 201 e adiciona o Header
             int status = record.status == 201 ? 200 : record.status;
 
@@ -71,17 +109,21 @@ public class IdempotencyFilter implements ContainerRequestFilter, ContainerRespo
             return;
         }
 
-        requestContext.setProperty(IDEMPOTENT_CONTEXT_PROPERTY,
-                new IdempotentContext(cacheKey, annotation.expireAfter()));
+        requestContext.setProperty(IDEMPOTENT_CONTEXT_PROPERTY, context);
     }
 
     @Override
     public void filter(ContainerRequestContext req, ContainerResponseContext res) {
         IdempotentContext context = (IdempotentContext) req.getProperty(IDEMPOTENT_CONTEXT_PROPERTY);
         if (context != null) {
-            // Só salva se for sucesso (2xx)
+            // Só salva se for sucesso (2xx); nos outros casos libera a chave para uma nova tentativa
             if (res.getStatus() >= 200 && res.getStatus() < 300) {
-                cache.put(context.cacheKey, new IdempotencyRecord(res.getStatus(), res.getEntity()));
+                IdempotencyRecord record = new IdempotencyRecord(res.getStatus(), res.getEntity());
+                record.ttlNanos = TimeUnit.SECONDS.toNanos(context.expireAfter);
+                // Só substitui a própria reserva: se ela expirou e outra requisição já tomou a chave, não sobrescreve
+                cache.asMap().replace(context.cacheKey, context.reserva, record);
+            } else {
+                cache.asMap().remove(context.cacheKey, context.reserva);
             }
         }
     }
@@ -90,6 +132,8 @@ public class IdempotencyFilter implements ContainerRequestFilter, ContainerRespo
     public static class IdempotentContext {
         public String cacheKey;
         public int expireAfter;
+        // Marcador exclusivo desta requisição enquanto ela está em andamento
+        public IdempotencyRecord reserva = IdempotencyRecord.inFlight();
 
         public IdempotentContext(String cacheKey, int expireAfter) {
             this.cacheKey = cacheKey;
@@ -100,7 +144,12 @@ public class IdempotencyFilter implements ContainerRequestFilter, ContainerRespo
     public static class IdempotencyRecord {
         public int status;
         public Object body;
+        public long ttlNanos = IN_FLIGHT_TTL.toNanos();
         public IdempotencyRecord(int s, Object b) { this.status = s; this.body = b; }
         public IdempotencyRecord() {}
+
+        static IdempotencyRecord inFlight() { return new IdempotencyRecord(0, null); }
+
+        boolean isInFlight() { return status == 0; }
     }
 }
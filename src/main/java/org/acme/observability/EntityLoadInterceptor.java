@@ -0,0 +1,21 @@
+package org.acme.observability;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+@PersistenceUnitExtension
+@ApplicationScoped
+public class EntityLoadInterceptor implements Interceptor {
+
+    @Inject
+    SqlAccounting accounting;
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        accounting.entityLoaded();
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+package org.acme.observability;
+
+import jakarta.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca os recursos que respondem JSON: só neles o {@link SqlStatsWriterInterceptor} é aplicado.
+ * Respostas com Path/PathPart (fotos) ficam sem WriterInterceptor, condição para o RESTEasy
+ * enviá-las com sendfile em vez de copiá-las pela cadeia de interceptors.
+ */
+@NameBinding
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonSqlStats {
+}
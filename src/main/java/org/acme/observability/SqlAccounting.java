@@ -0,0 +1,29 @@
+package org.acme.observability;
+
+import io.quarkus.arc.Arc;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Ponto único onde o Hibernate reporta statements e entidades carregadas. Os valores vão para
+ * o {@link SqlStats} da requisição, quando há uma.
+ */
+@ApplicationScoped
+public class SqlAccounting {
+
+    @Inject
+    SqlStats stats;
+
+    public void statementExecuted(long nanos) {
+        // Carga do import.sql, jobs agendados etc. rodam fora de uma requisição
+        if (requestActive()) stats.recordStatement(nanos);
+    }
+
+    public void entityLoaded() {
+        if (requestActive()) stats.recordEntityLoad();
+    }
+
+    private static boolean requestActive() {
+        return Arc.container().requestContext().isActive();
+    }
+}
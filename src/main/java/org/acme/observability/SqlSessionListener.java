@@ -0,0 +1,37 @@
+package org.acme.observability;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import org.hibernate.SessionEventListener;
+
+/**
+ * Registrado via hibernate.session.events.auto: o Hibernate cria uma instância por sessão,
+ * então o campo 'start' não é compartilhado entre threads. A instância é criada por reflexão
+ * a partir do nome da classe, daí o registro para o executável nativo.
+ */
+@RegisterForReflection
+public class SqlSessionListener implements SessionEventListener {
+
+    private final SqlAccounting accounting = Arc.container().instance(SqlAccounting.class).get();
+    private long start;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        accounting.statementExecuted(System.nanoTime() - start);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        accounting.statementExecuted(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,32 @@
+package org.acme.observability;
+
+import jakarta.enterprise.context.RequestScoped;
+
+// Contadores de SQL da requisição corrente.
+@RequestScoped
+public class SqlStats {
+    private int statements;
+    private long dbNanos;
+    private int entitiesLoaded;
+
+    void recordStatement(long nanos) {
+        statements++;
+        dbNanos += nanos;
+    }
+
+    void recordEntityLoad() {
+        entitiesLoaded++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public double getDbMillis() {
+        return dbNanos / 1_000_000.0;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+}
@@ -0,0 +1,93 @@
+package org.acme.observability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Expõe os contadores de SQL da requisição no header Server-Timing (opt-in) e no log.
+ * Nos recursos {@link JsonSqlStats}, o Jackson ainda pode disparar lazy loads ao serializar:
+ * com o header ligado o corpo é percorrido aqui antes (descartando a saída), para que o header
+ * já os conte; com ele desligado, o log fica para o {@link SqlStatsWriterInterceptor}.
+ */
+@Provider
+@ApplicationScoped
+@Priority(Priorities.HEADER_DECORATOR)
+public class SqlStatsFilter implements ContainerResponseFilter {
+
+    private static final Logger LOG = Logger.getLogger(SqlStatsFilter.class);
+    static final String REQUEST_PROPERTY = "sql-stats-request";
+
+    @ConfigProperty(name = "caoamigo.sql-stats.server-timing", defaultValue = "false")
+    boolean serverTiming;
+
+    @ConfigProperty(name = "caoamigo.sql-stats.warn-threshold", defaultValue = "20")
+    int warnThreshold;
+
+    @Inject
+    SqlStats stats;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext req, ContainerResponseContext res) {
+        String request = req.getMethod() + " " + req.getUriInfo().getPath();
+        boolean json = res.hasEntity() && jsonSqlStats();
+        if (serverTiming) {
+            if (json) carregar(res.getEntity());
+            res.getHeaders().add("Server-Timing", String.format(Locale.ROOT,
+                    "db;dur=%.3f;desc=\"%d statements, %d entities\"",
+                    stats.getDbMillis(), stats.getStatements(), stats.getEntitiesLoaded()));
+            log(request);
+        } else if (json) {
+            req.setProperty(REQUEST_PROPERTY, request);
+        } else {
+            log(request);
+        }
+    }
+
+    void log(String request) {
+        if (stats.getStatements() > warnThreshold) {
+            LOG.warnf("%s: %d SQL statements (%.3f ms), %d entities loaded", request,
+                    stats.getStatements(), stats.getDbMillis(), stats.getEntitiesLoaded());
+        } else {
+            LOG.debugf("%s: %d SQL statements (%.3f ms), %d entities loaded", request,
+                    stats.getStatements(), stats.getDbMillis(), stats.getEntitiesLoaded());
+        }
+    }
+
+    private boolean jsonSqlStats() {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null) return false;
+        return method.isAnnotationPresent(JsonSqlStats.class)
+                || resourceInfo.getResourceClass().isAnnotationPresent(JsonSqlStats.class);
+    }
+
+    // Mesma serialização que o writer fará, para uma saída nula: inicializa o que estiver lazy
+    private void carregar(Object entity) {
+        try {
+            objectMapper.writeValue(OutputStream.nullOutputStream(), entity);
+        } catch (IOException e) {
+            // O writer de verdade vai falhar do mesmo jeito e responder o erro
+            LOG.debugf(e, "Falha ao pré-serializar a resposta para o Server-Timing");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.acme.observability;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+
+// Grava o log de SQL depois da serialização dos recursos @JsonSqlStats, com os lazy loads do Jackson.
+@Provider
+@ApplicationScoped
+@JsonSqlStats
+@Priority(Priorities.HEADER_DECORATOR)
+public class SqlStatsWriterInterceptor implements WriterInterceptor {
+
+    @Inject
+    SqlStatsFilter filter;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext ctx) throws IOException {
+        ctx.proceed();
+        Object request = ctx.getProperty(SqlStatsFilter.REQUEST_PROPERTY);
+        if (request != null) filter.log(request.toString());
+    }
+}
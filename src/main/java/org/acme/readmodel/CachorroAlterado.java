@@ -0,0 +1,24 @@
+package org.acme.readmodel;
+
+import org.acme.Cachorro;
+
+// Evento disparado pelos endpoints de escrita; só é aplicado ao modelo de leitura (e ao índice de recomendação) após o commit.
+public class CachorroAlterado {
+    public final long id;
+    // null quando o cachorro foi removido. A view só é montada após o commit,
+    // quando os ids gerados no flush (ex.: de uma ficha nova) já estão preenchidos.
+    public final Cachorro cachorro;
+
+    private CachorroAlterado(long id, Cachorro cachorro) {
+        this.id = id;
+        this.cachorro = cachorro;
+    }
+
+    public static CachorroAlterado salvo(Cachorro cachorro) {
+        return new CachorroAlterado(cachorro.id, cachorro);
+    }
+
+    public static CachorroAlterado removido(long id) {
+        return new CachorroAlterado(id, null);
+    }
+}
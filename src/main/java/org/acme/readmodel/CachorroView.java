@@ -0,0 +1,38 @@
+package org.acme.readmodel;
+
+import java.time.LocalDate;
+import org.acme.Cachorro;
+import org.acme.Disponibilidade;
+import org.acme.FichaCachorro;
+
+// Cópia imutável de um Cachorro (e sua ficha) mantida no modelo de leitura.
+public record CachorroView(Long id, Long version, String nome, LocalDate dataDeNascimento, String localDeResgate,
+                           Disponibilidade disponibilidade, FichaView ficha) {
+
+    public record FichaView(Long id, String descricaoHistoria, String temperamentoPrincipal, String habilidadesEspeciais) {
+
+        static FichaView of(FichaCachorro ficha) {
+            if (ficha == null) return null;
+            return new FichaView(ficha.id, ficha.descricaoHistoria, ficha.temperamentoPrincipal, ficha.habilidadesEspeciais);
+        }
+
+        FichaCachorro toFicha() {
+            FichaCachorro ficha = new FichaCachorro(descricaoHistoria, temperamentoPrincipal, habilidadesEspeciais);
+            ficha.id = id;
+            return ficha;
+        }
+    }
+
+    public static CachorroView of(Cachorro cachorro) {
+        return new CachorroView(cachorro.id, cachorro.version, cachorro.nome, cachorro.dataDeNascimento,
+                cachorro.localDeResgate, cachorro.disponibilidade, FichaView.of(cachorro.ficha));
+    }
+
+    // Gera uma instância nova (não gerenciada) a cada leitura, preservando o formato do JSON da API.
+    public Cachorro toCachorro() {
+        Cachorro cachorro = new Cachorro(id, nome, dataDeNascimento, localDeResgate, ficha == null ? null : ficha.toFicha());
+        cachorro.version = version;
+        cachorro.disponibilidade = disponibilidade;
+        return cachorro;
+    }
+}
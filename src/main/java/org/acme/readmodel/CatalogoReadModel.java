@@ -0,0 +1,144 @@
+package org.acme.readmodel;
+
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.acme.Cachorro;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Modelo de leitura (CQRS) do catálogo de cachorros. Os GETs públicos de CachorroResource
+ * leem daqui sem tocar no banco; as escritas chegam via {@link CachorroAlterado} após o commit.
+ * Com caoamigo.read-model.enabled=false tudo volta a ser lido do banco.
+ */
+@ApplicationScoped
+public class CatalogoReadModel {
+
+    private static final Logger LOG = Logger.getLogger(CatalogoReadModel.class);
+
+    @ConfigProperty(name = "caoamigo.read-model.enabled", defaultValue = "false")
+    boolean enabled;
+
+    // null até a primeira carga terminar; enquanto isso as leituras vão para o banco.
+    private final AtomicReference<CatalogoSnapshot> snapshot = new AtomicReference<>();
+
+    public record Pagina(List<Cachorro> itens, int total, int totalPaginas) {}
+
+    public boolean isAtivo() {
+        return enabled && snapshot.get() != null;
+    }
+
+    public CatalogoSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        if (!enabled) return;
+        snapshot.set(carregarDoBanco());
+        LOG.infof("Modelo de leitura do catálogo carregado com %d cachorros", snapshot.get().size());
+    }
+
+    void onCachorroAlterado(@Observes(during = TransactionPhase.AFTER_SUCCESS) CachorroAlterado evento) {
+        if (!enabled) return;
+        CachorroView view = evento.cachorro == null ? null : CachorroView.of(evento.cachorro);
+        snapshot.updateAndGet(atual -> {
+            if (atual == null) return null;
+            return view == null ? atual.without(evento.id) : atual.with(view);
+        });
+    }
+
+    // Primeira verificação só depois de um intervalo: não concorre com a carga inicial e as escritas da subida
+    @Scheduled(every = "${caoamigo.read-model.consistency-check:5m}", delayed = "${caoamigo.read-model.consistency-check:5m}")
+    void verificarPeriodicamente() {
+        verificarConsistencia();
+    }
+
+    /**
+     * Compara o snapshot com o banco e o reconstrói se houver divergência.
+     * Retorna true se o snapshot estava consistente.
+     */
+    @Transactional
+    public boolean verificarConsistencia() {
+        if (!enabled) return true;
+        CatalogoSnapshot antes = snapshot.get();
+        CatalogoSnapshot banco = carregarDoBanco().comRemovidosDe(antes);
+        if (antes != null && antes.sameContentAs(banco)) return true;
+
+        // Só troca se nenhuma escrita foi aplicada durante a leitura do banco;
+        // caso contrário a próxima verificação decide.
+        if (snapshot.compareAndSet(antes, banco)) {
+            LOG.warnf("Modelo de leitura do catálogo divergente do banco; reconstruído com %d cachorros", banco.size());
+        }
+        return false;
+    }
+
+    public Cachorro findById(long id) {
+        CachorroView view = snapshot.get().get(id);
+        return view == null ? null : view.toCachorro();
+    }
+
+    public List<Cachorro> listAll() {
+        return toCachorros(snapshot.get().all());
+    }
+
+    /**
+     * Mesma semântica de CachorroResource.search. Retorna null quando o campo de ordenação
+     * não é suportado aqui, para que a consulta seja feita no banco.
+     */
+    public Pagina search(String q, String sort, boolean desc, int page, int size) {
+        Comparator<CachorroView> comparator = comparator(sort);
+        if (comparator == null || size <= 0) return null;
+        if (desc) comparator = comparator.reversed();
+
+        CatalogoSnapshot atual = snapshot.get();
+        List<CachorroView> encontrados = (q == null || q.isBlank()) ? new ArrayList<>(atual.all()) : atual.filtrar(q);
+        encontrados.sort(comparator);
+        return paginar(encontrados, page, size);
+    }
+
+    static Pagina paginar(List<CachorroView> encontrados, int page, int size) {
+        int total = encontrados.size();
+        int from = (int) Math.min((long) Math.max(page, 0) * size, total);
+        int to = (int) Math.min((long) from + size, total);
+        return new Pagina(toCachorros(encontrados.subList(from, to)), total, (int) (((long) total + size - 1) / size));
+    }
+
+    private static Comparator<CachorroView> comparator(String sort) {
+        return switch (sort) {
+            case "id" -> Comparator.comparing(CachorroView::id);
+            case "nome" -> nullsFirst(CachorroView::nome);
+            case "dataDeNascimento" -> nullsFirst(CachorroView::dataDeNascimento);
+            case "localDeResgate" -> nullsFirst(CachorroView::localDeResgate);
+            default -> null;
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<CachorroView> nullsFirst(Function<CachorroView, T> campo) {
+        // Empate desfeito pelo id para que a paginação seja estável
+        return Comparator.comparing(campo, Comparator.nullsFirst(Comparator.<T>naturalOrder()))
+                .thenComparing(CachorroView::id);
+    }
+
+    private static List<Cachorro> toCachorros(List<CachorroView> views) {
+        List<Cachorro> result = new ArrayList<>(views.size());
+        for (CachorroView view : views) result.add(view.toCachorro());
+        return result;
+    }
+
+    private static CatalogoSnapshot carregarDoBanco() {
+        List<Cachorro> cachorros = Cachorro.find("select c from Cachorro c left join fetch c.ficha").list();
+        List<CachorroView> views = new ArrayList<>(cachorros.size());
+        for (Cachorro c : cachorros) views.add(CachorroView.of(c));
+        return CatalogoSnapshot.of(views);
+    }
+}
@@ -0,0 +1,195 @@
+package org.acme.readmodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Fotografia imutável do catálogo. Nunca é alterada depois de criada: cada escrita gera
+ * uma nova instância (copy-on-write), então os leitores não precisam de nenhum lock.
+ */
+public final class CatalogoSnapshot {
+
+    static final CatalogoSnapshot VAZIO = new CatalogoSnapshot(new long[0], new CachorroView[0], new long[0]);
+
+    // Índice por id: ids ordenados + busca binária, sem boxing de Long.
+    private final long[] ids;
+    private final CachorroView[] cachorros;
+    // Índice por local de resgate (em minúsculas) -> posições em 'cachorros'.
+    private final Map<String, int[]> porLocal;
+    // Ids removidos (ordenados). Os ids são IDENTITY e nunca reaproveitados, então qualquer view que
+    // chegue depois da remoção veio de uma transação anterior a ela e é descartada. Custa 8 bytes por
+    // cachorro removido desde a subida da aplicação.
+    private final long[] removidos;
+
+    private CatalogoSnapshot(long[] ids, CachorroView[] cachorros, long[] removidos) {
+        this.ids = ids;
+        this.cachorros = cachorros;
+        this.porLocal = indexarPorLocal(cachorros);
+        this.removidos = removidos;
+    }
+
+    static CatalogoSnapshot of(List<CachorroView> views) {
+        CachorroView[] ordenados = views.toArray(new CachorroView[0]);
+        Arrays.sort(ordenados, (a, b) -> Long.compare(a.id(), b.id()));
+        long[] ids = new long[ordenados.length];
+        for (int i = 0; i < ordenados.length; i++) ids[i] = ordenados[i].id();
+        return new CatalogoSnapshot(ids, ordenados, new long[0]);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public CachorroView get(long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        return pos < 0 ? null : cachorros[pos];
+    }
+
+    public List<CachorroView> all() {
+        return Collections.unmodifiableList(Arrays.asList(cachorros));
+    }
+
+    public List<CachorroView> porLocalDeResgate(String local) {
+        int[] posicoes = local == null ? null : porLocal.get(local.toLowerCase(Locale.ROOT));
+        if (posicoes == null) return List.of();
+        List<CachorroView> result = new ArrayList<>(posicoes.length);
+        for (int pos : posicoes) result.add(cachorros[pos]);
+        return result;
+    }
+
+    // Equivalente a "lower(nome) like %q% or lower(localDeResgate) like %q%", mantendo a ordem por id.
+    List<CachorroView> filtrar(String q) {
+        Termo termo = new Termo(q.toLowerCase(Locale.ROOT));
+        boolean[] selecionados = new boolean[cachorros.length];
+        // O teste de local é feito uma vez por local distinto, não uma vez por cachorro.
+        for (Map.Entry<String, int[]> e : porLocal.entrySet()) {
+            if (termo.casa(e.getKey())) {
+                for (int pos : e.getValue()) selecionados[pos] = true;
+            }
+        }
+        List<CachorroView> result = new ArrayList<>();
+        for (int i = 0; i < cachorros.length; i++) {
+            String nome = cachorros[i].nome();
+            if (selecionados[i] || (nome != null && termo.casa(nome.toLowerCase(Locale.ROOT)))) {
+                result.add(cachorros[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Substitui (ou insere) a view do cachorro. Uma view com version menor que a guardada é ignorada,
+     * assim como a de um cachorro já removido: os eventos de transações concorrentes chegam após o
+     * commit em qualquer ordem. A disponibilidade não incrementa a version, então versões iguais são aplicadas.
+     */
+    CatalogoSnapshot with(CachorroView view) {
+        if (Arrays.binarySearch(removidos, view.id()) >= 0) return this;
+        int pos = Arrays.binarySearch(ids, view.id());
+        if (pos >= 0) {
+            Long atual = cachorros[pos].version();
+            if (atual != null && view.version() != null && view.version() < atual) return this;
+            CachorroView[] copia = cachorros.clone();
+            copia[pos] = view;
+            return new CatalogoSnapshot(ids, copia, removidos);
+        }
+        int insercao = -pos - 1;
+        long[] novosIds = new long[ids.length + 1];
+        CachorroView[] novos = new CachorroView[cachorros.length + 1];
+        System.arraycopy(ids, 0, novosIds, 0, insercao);
+        System.arraycopy(cachorros, 0, novos, 0, insercao);
+        novosIds[insercao] = view.id();
+        novos[insercao] = view;
+        System.arraycopy(ids, insercao, novosIds, insercao + 1, ids.length - insercao);
+        System.arraycopy(cachorros, insercao, novos, insercao + 1, cachorros.length - insercao);
+        return new CatalogoSnapshot(novosIds, novos, removidos);
+    }
+
+    /**
+     * Remove o cachorro e guarda o id como removido, mesmo que ele ainda não esteja aqui
+     * (a remoção pode chegar antes do evento da inserção).
+     */
+    CatalogoSnapshot without(long id) {
+        int removido = Arrays.binarySearch(removidos, id);
+        if (removido >= 0) return this;
+        long[] novosRemovidos = inserir(removidos, -removido - 1, id);
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) return new CatalogoSnapshot(ids, cachorros, novosRemovidos);
+        long[] novosIds = new long[ids.length - 1];
+        CachorroView[] novos = new CachorroView[cachorros.length - 1];
+        System.arraycopy(ids, 0, novosIds, 0, pos);
+        System.arraycopy(cachorros, 0, novos, 0, pos);
+        System.arraycopy(ids, pos + 1, novosIds, pos, ids.length - pos - 1);
+        System.arraycopy(cachorros, pos + 1, novos, pos, cachorros.length - pos - 1);
+        return new CatalogoSnapshot(novosIds, novos, novosRemovidos);
+    }
+
+    // Conteúdo deste snapshot com os removidos de outro: uma reconstrução a partir do banco não os esquece.
+    CatalogoSnapshot comRemovidosDe(CatalogoSnapshot outro) {
+        return outro == null || outro.removidos.length == 0 ? this : new CatalogoSnapshot(ids, cachorros, outro.removidos);
+    }
+
+    boolean sameContentAs(CatalogoSnapshot other) {
+        return Arrays.equals(cachorros, other.cachorros);
+    }
+
+    // No LIKE do banco '%' e '_' são curingas; sem eles basta um contains.
+    private static final class Termo {
+        private final String literal;
+        private final Pattern padrao;
+
+        Termo(String termo) {
+            if (termo.indexOf('%') < 0 && termo.indexOf('_') < 0) {
+                literal = termo;
+                padrao = null;
+                return;
+            }
+            StringBuilder regex = new StringBuilder();
+            StringBuilder trecho = new StringBuilder();
+            for (int i = 0; i < termo.length(); i++) {
+                char c = termo.charAt(i);
+                if (c == '%' || c == '_') {
+                    if (!trecho.isEmpty()) regex.append(Pattern.quote(trecho.toString()));
+                    trecho.setLength(0);
+                    regex.append(c == '%' ? ".*" : ".");
+                } else {
+                    trecho.append(c);
+                }
+            }
+            if (!trecho.isEmpty()) regex.append(Pattern.quote(trecho.toString()));
+            literal = null;
+            padrao = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+
+        boolean casa(String texto) {
+            return padrao == null ? texto.contains(literal) : padrao.matcher(texto).find();
+        }
+    }
+
+    private static long[] inserir(long[] ordenados, int pos, long valor) {
+        long[] novos = new long[ordenados.length + 1];
+        System.arraycopy(ordenados, 0, novos, 0, pos);
+        novos[pos] = valor;
+        System.arraycopy(ordenados, pos, novos, pos + 1, ordenados.length - pos);
+        return novos;
+    }
+
+    private static Map<String, int[]> indexarPorLocal(CachorroView[] cachorros) {
+        Map<String, List<Integer>> temp = new HashMap<>();
+        for (int i = 0; i < cachorros.length; i++) {
+            String local = cachorros[i].localDeResgate();
+            if (local == null) continue;
+            temp.computeIfAbsent(local.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(i);
+        }
+        Map<String, int[]> index = new HashMap<>(temp.size() * 2);
+        for (Map.Entry<String, List<Integer>> e : temp.entrySet()) {
+            index.put(e.getKey(), e.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return Collections.unmodifiableMap(index);
+    }
+}
@@ -0,0 +1,166 @@
+package org.acme.recomendacao;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.acme.Cachorro;
+import org.acme.Disponibilidade;
+import org.acme.FichaCachorro;
+import org.acme.readmodel.CachorroAlterado;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Recomendação de cachorros por similaridade do texto da ficha (temperamento, habilidades e história).
+ * O índice fica em memória e é atualizado após o commit pelos mesmos eventos do modelo de leitura.
+ * Reconstruir o índice custa O(total de termos) (ver {@link IndiceTfIdf}), então os eventos só tokenizam
+ * o cachorro alterado e a reconstrução é feita em segundo plano, uma vez para todas as alterações de um
+ * intervalo curto (caoamigo.recomendacao.atraso). As leituras não bloqueiam e veem o último índice publicado.
+ * Como no modelo de leitura, eventos fora de ordem não voltam o índice para uma versão anterior do
+ * cachorro, nem trazem de volta um cachorro removido.
+ */
+@ApplicationScoped
+public class IndiceRecomendacao {
+
+    private static final Logger LOG = Logger.getLogger(IndiceRecomendacao.class);
+
+    @ConfigProperty(name = "caoamigo.recomendacao.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "caoamigo.recomendacao.atraso", defaultValue = "200ms")
+    Duration atraso;
+
+    // Publicado só pelas reconstruções, que são serializadas por this
+    private volatile IndiceTfIdf indice = IndiceTfIdf.VAZIO;
+
+    // Alteração mais recente de cada cachorro ainda não aplicada; documento null = removido
+    private record Alteracao(IndiceTfIdf.Documento documento) {
+        // A remoção prevalece (ids não são reaproveitados); entre dois salvos, o de maior version
+        static Alteracao maisRecente(Alteracao antiga, Alteracao nova) {
+            if (antiga.documento == null) return antiga;
+            if (nova.documento == null) return nova;
+            Long anterior = antiga.documento.version();
+            Long atual = nova.documento.version();
+            return anterior != null && atual != null && atual < anterior ? antiga : nova;
+        }
+    }
+    private final Map<Long, Alteracao> pendentes = new ConcurrentHashMap<>();
+    // Ids removidos: um evento atrasado de uma transação anterior à remoção é descartado
+    private final Set<Long> removidos = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean agendado = new AtomicBoolean();
+    private ScheduledExecutorService executor;
+
+    public record Recomendacao(long id, float similaridade) {}
+
+    public boolean isAtivo() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "indice-recomendacao");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        if (!enabled) return;
+        List<Cachorro> cachorros = Cachorro.find("select c from Cachorro c left join fetch c.ficha").list();
+        List<IndiceTfIdf.Documento> documentos = new ArrayList<>(cachorros.size());
+        for (Cachorro c : cachorros) documentos.add(documento(c));
+        synchronized (this) {
+            indice = IndiceTfIdf.of(documentos);
+        }
+        LOG.infof("Índice de recomendação carregado com %d cachorros", documentos.size());
+    }
+
+    void onCachorroAlterado(@Observes(during = TransactionPhase.AFTER_SUCCESS) CachorroAlterado evento) {
+        if (!enabled) return;
+        if (evento.cachorro == null) {
+            removidos.add(evento.id);
+        } else if (removidos.contains(evento.id)) {
+            return;
+        }
+        // Só o cachorro alterado é tokenizado, aqui mesmo; a reconstrução fica para a thread do índice
+        pendentes.merge(evento.id, new Alteracao(evento.cachorro == null ? null : documento(evento.cachorro)), Alteracao::maisRecente);
+        if (agendado.compareAndSet(false, true)) {
+            executor.schedule(this::reconstruirAgendado, atraso.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void reconstruirAgendado() {
+        // Liberado antes de esvaziar: uma alteração que chegue durante a reconstrução agenda a próxima
+        agendado.set(false);
+        try {
+            sincronizar();
+        } catch (RuntimeException e) {
+            LOG.error("Falha ao atualizar o índice de recomendação", e);
+        }
+    }
+
+    /**
+     * Aplica já as alterações pendentes, numa única reconstrução. Normalmente chamado pela thread
+     * do índice; útil quando a próxima leitura precisa refletir as escritas já commitadas.
+     */
+    public synchronized void sincronizar() {
+        if (pendentes.isEmpty()) return;
+        List<IndiceTfIdf.Documento> salvos = new ArrayList<>();
+        List<Long> removidosAgora = new ArrayList<>();
+        for (Long id : pendentes.keySet()) {
+            Alteracao alteracao = pendentes.remove(id);
+            if (alteracao == null) continue;
+            if (alteracao.documento() == null) removidosAgora.add(id);
+            // Removido depois de enfileirado o salvo: a remoção já está (ou estará) na fila
+            else if (!removidos.contains(id)) salvos.add(alteracao.documento());
+        }
+        indice = indice.aplicar(salvos, removidosAgora);
+    }
+
+    public List<Recomendacao> similares(long id, int k) {
+        IndiceTfIdf atual = indice;
+        float[] consulta = atual.vetorDoCachorro(id);
+        if (consulta == null) return List.of();
+        return converter(atual.buscar(consulta, k, id, true));
+    }
+
+    public List<Recomendacao> recomendar(String perfil, int k) {
+        IndiceTfIdf atual = indice;
+        float[] consulta = atual.vetorDoTexto(perfil);
+        if (consulta == null) return List.of();
+        return converter(atual.buscar(consulta, k, -1, true));
+    }
+
+    private static List<Recomendacao> converter(TopK top) {
+        List<Recomendacao> result = new ArrayList<>();
+        for (TopK.Resultado r : top.ordenados()) result.add(new Recomendacao(r.id(), r.score()));
+        return result;
+    }
+
+    private static IndiceTfIdf.Documento documento(Cachorro cachorro) {
+        FichaCachorro ficha = cachorro.ficha;
+        return new IndiceTfIdf.Documento(cachorro.id, cachorro.version, cachorro.disponibilidade == Disponibilidade.ADOTADO,
+                ficha == null ? Tokenizador.Contagem.VAZIA : Tokenizador.contar(ficha.temperamentoPrincipal, ficha.habilidadesEspeciais, ficha.descricaoHistoria));
+    }
+}
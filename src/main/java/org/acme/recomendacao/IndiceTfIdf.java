@@ -0,0 +1,169 @@
+package org.acme.recomendacao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Índice TF-IDF imutável sobre o texto das fichas. Cada atualização gera um novo índice
+ * reaproveitando a tokenização dos demais cachorros; só os pesos são recalculados.
+ * Não há atualização incremental dos pesos: o idf depende do total de documentos, então inserir ou
+ * remover um cachorro muda o peso e a norma de todos os outros. Como isso percorre todos os
+ * documentos, as alterações são aplicadas em lote ({@link #aplicar}).
+ * Os vetores são esparsos: ids de termo em int[] e pesos normalizados (L2) em float[].
+ */
+final class IndiceTfIdf {
+
+    // A partir deste tamanho a busca é dividida em blocos processados em paralelo
+    private static final int LIMIAR_PARALELO = 20_000;
+    private static final int TAMANHO_BLOCO = 4_096;
+
+    // version do cachorro de onde o documento saiu (null se desconhecida)
+    record Documento(long id, Long version, boolean adotado, Tokenizador.Contagem contagem) {}
+
+    static final IndiceTfIdf VAZIO = new IndiceTfIdf(new Documento[0]);
+
+    private final Documento[] documentos; // ordenados por id
+    private final long[] ids;
+    private final Map<String, Integer> vocabulario;
+    private final float[] idf;
+    private final int[][] termos;
+    private final float[][] pesos;
+
+    private IndiceTfIdf(Documento[] documentos) {
+        this.documentos = documentos;
+        int n = documentos.length;
+        this.ids = new long[n];
+        this.vocabulario = new HashMap<>();
+        int[] df = new int[16];
+        for (int i = 0; i < n; i++) {
+            ids[i] = documentos[i].id();
+            for (String termo : documentos[i].contagem().termos()) {
+                int t = vocabulario.computeIfAbsent(termo, k -> vocabulario.size());
+                if (t >= df.length) df = Arrays.copyOf(df, df.length * 2);
+                df[t]++;
+            }
+        }
+
+        this.idf = new float[vocabulario.size()];
+        for (int t = 0; t < idf.length; t++) {
+            idf[t] = (float) (Math.log((1.0 + n) / (1.0 + df[t])) + 1.0);
+        }
+
+        this.termos = new int[n][];
+        this.pesos = new float[n][];
+        for (int i = 0; i < n; i++) {
+            Tokenizador.Contagem contagem = documentos[i].contagem();
+            int[] t = new int[contagem.size()];
+            float[] w = new float[contagem.size()];
+            for (int j = 0; j < t.length; j++) {
+                t[j] = vocabulario.get(contagem.termos()[j]);
+                w[j] = (float) (1.0 + Math.log(contagem.frequencias()[j])) * idf[t[j]];
+            }
+            normalizar(w);
+            termos[i] = t;
+            pesos[i] = w;
+        }
+    }
+
+    static IndiceTfIdf of(List<Documento> documentos) {
+        Documento[] ordenados = documentos.toArray(new Documento[0]);
+        Arrays.sort(ordenados, (a, b) -> Long.compare(a.id(), b.id()));
+        return new IndiceTfIdf(ordenados);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Novo índice com os documentos salvos (inseridos ou substituídos) e sem os removidos,
+     * numa única reconstrução. Um mesmo id não deve aparecer nas duas listas. Um documento salvo com
+     * version menor que a do indexado é ignorado, como no modelo de leitura; versões iguais são
+     * aplicadas, porque a disponibilidade (adotado) muda sem incrementar a version.
+     */
+    IndiceTfIdf aplicar(Collection<Documento> salvos, Collection<Long> removidos) {
+        List<Documento> aplicados = new ArrayList<>(salvos.size());
+        for (Documento d : salvos) {
+            int pos = Arrays.binarySearch(ids, d.id());
+            Long atual = pos < 0 ? null : documentos[pos].version();
+            if (atual == null || d.version() == null || d.version() >= atual) aplicados.add(d);
+        }
+        if (aplicados.isEmpty() && removidos.isEmpty()) return this;
+        Set<Long> substituidos = new HashSet<>(removidos);
+        for (Documento d : aplicados) substituidos.add(d.id());
+        List<Documento> novos = new ArrayList<>(documentos.length + aplicados.size());
+        for (Documento d : documentos) {
+            if (!substituidos.contains(d.id())) novos.add(d);
+        }
+        novos.addAll(aplicados);
+        // Os existentes já estão em ordem; o sort só encaixa os salvos
+        return of(novos);
+    }
+
+    // Vetor denso do cachorro indicado, ou null se ele não estiver no índice
+    float[] vetorDoCachorro(long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) return null;
+        float[] vetor = new float[idf.length];
+        for (int j = 0; j < termos[pos].length; j++) vetor[termos[pos][j]] = pesos[pos][j];
+        return vetor;
+    }
+
+    // Vetor denso de um texto livre (perfil do adotante), ou null se nenhum termo for conhecido
+    float[] vetorDoTexto(String texto) {
+        float[] vetor = new float[idf.length];
+        boolean algum = false;
+        Tokenizador.Contagem contagem = Tokenizador.contar(texto);
+        for (int j = 0; j < contagem.size(); j++) {
+            Integer t = vocabulario.get(contagem.termos()[j]);
+            if (t == null) continue;
+            vetor[t] = (float) (1.0 + Math.log(contagem.frequencias()[j])) * idf[t];
+            algum = true;
+        }
+        if (!algum) return null;
+        normalizar(vetor);
+        return vetor;
+    }
+
+    /**
+     * Os k cachorros mais similares (cosseno) ao vetor de consulta, ignorando o id informado
+     * e, se pedido, os já adotados.
+     */
+    TopK buscar(float[] consulta, int k, long ignorarId, boolean ignorarAdotados) {
+        int n = ids.length;
+        if (n < LIMIAR_PARALELO) return buscar(consulta, k, ignorarId, ignorarAdotados, 0, n);
+        int blocos = (n + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+        return IntStream.range(0, blocos).parallel()
+                .mapToObj(b -> buscar(consulta, k, ignorarId, ignorarAdotados, b * TAMANHO_BLOCO, Math.min(n, (b + 1) * TAMANHO_BLOCO)))
+                .reduce(TopK::merge)
+                .orElseGet(() -> new TopK(k));
+    }
+
+    private TopK buscar(float[] consulta, int k, long ignorarId, boolean ignorarAdotados, int de, int ate) {
+        TopK top = new TopK(k);
+        for (int i = de; i < ate; i++) {
+            if (ids[i] == ignorarId || (ignorarAdotados && documentos[i].adotado())) continue;
+            int[] t = termos[i];
+            float[] w = pesos[i];
+            float score = 0f;
+            for (int j = 0; j < t.length; j++) score += w[j] * consulta[t[j]];
+            if (score > 0f) top.offer(ids[i], score);
+        }
+        return top;
+    }
+
+    private static void normalizar(float[] vetor) {
+        double soma = 0;
+        for (float v : vetor) soma += v * v;
+        if (soma == 0) return;
+        float norma = (float) Math.sqrt(soma);
+        for (int i = 0; i < vetor.length; i++) vetor[i] /= norma;
+    }
+}
@@ -0,0 +1,68 @@
+package org.acme.recomendacao;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização simples para português: minúsculas, sem acentos, sem stopwords e com um
+ * stemming leve (plural e gênero), para que "calma", "calmo" e "calmos" virem o mesmo termo.
+ */
+final class Tokenizador {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    // "bom"/"boa" ficam de fora: "bom com crianças" é justamente o que o adotante procura
+    private static final Set<String> STOPWORDS = Set.of(
+            "que", "com", "para", "por", "dos", "das", "nos", "nas", "uma", "umas", "uns", "aos",
+            "ele", "ela", "eles", "elas", "seu", "sua", "seus", "suas", "mas", "mais", "muito", "muita",
+            "como", "quando", "onde", "foi", "ser", "sao", "esta", "este", "isso", "tem", "bem",
+            "sem", "ate", "pelo", "pela", "quem", "lhe", "sobre", "entre", "depois", "agora", "ainda");
+
+    /**
+     * Termos distintos em ordem alfabética e a frequência de cada um, em arrays paralelos:
+     * é o que fica guardado por cachorro no índice, sem um Map de Integer por documento.
+     */
+    record Contagem(String[] termos, int[] frequencias) {
+        static final Contagem VAZIA = new Contagem(new String[0], new int[0]);
+
+        int size() {
+            return termos.length;
+        }
+    }
+
+    private Tokenizador() {}
+
+    static Contagem contar(String... textos) {
+        // int[1] como contador mutável: sem boxing a cada ocorrência
+        Map<String, int[]> contagens = new HashMap<>();
+        for (String texto : textos) {
+            if (texto == null || texto.isBlank()) continue;
+            String normalizado = ACENTOS.matcher(Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+            for (String palavra : SEPARADORES.split(normalizado)) {
+                if (palavra.length() < 3 || STOPWORDS.contains(palavra)) continue;
+                contagens.computeIfAbsent(radical(palavra), k -> new int[1])[0]++;
+            }
+        }
+        if (contagens.isEmpty()) return Contagem.VAZIA;
+
+        String[] termos = contagens.keySet().toArray(new String[0]);
+        Arrays.sort(termos);
+        int[] frequencias = new int[termos.length];
+        for (int i = 0; i < termos.length; i++) frequencias[i] = contagens.get(termos[i])[0];
+        return new Contagem(termos, frequencias);
+    }
+
+    private static String radical(String palavra) {
+        if (palavra.length() > 4 && palavra.endsWith("s")) palavra = palavra.substring(0, palavra.length() - 1);
+        if (palavra.length() > 4) {
+            char ultima = palavra.charAt(palavra.length() - 1);
+            if (ultima == 'a' || ultima == 'o' || ultima == 'e') palavra = palavra.substring(0, palavra.length() - 1);
+        }
+        return palavra;
+    }
+}
@@ -0,0 +1,74 @@
+package org.acme.recomendacao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Heap mínimo limitado a k elementos, em arrays primitivos: mantém os k maiores scores em O(n log k).
+final class TopK {
+
+    record Resultado(long id, float score) {}
+
+    private final int k;
+    private final long[] ids;
+    private final float[] scores;
+    private int size;
+
+    TopK(int k) {
+        this.k = k;
+        this.ids = new long[k];
+        this.scores = new float[k];
+    }
+
+    void offer(long id, float score) {
+        if (size < k) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    TopK merge(TopK other) {
+        for (int i = 0; i < other.size; i++) offer(other.ids[i], other.scores[i]);
+        return this;
+    }
+
+    List<Resultado> ordenados() {
+        List<Resultado> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) result.add(new Resultado(ids[i], scores[i]));
+        result.sort((a, b) -> a.score() != b.score() ? Float.compare(b.score(), a.score()) : Long.compare(a.id(), b.id()));
+        return result;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int menor = left + 1 < size && scores[left + 1] < scores[left] ? left + 1 : left;
+            if (scores[i] <= scores[menor]) break;
+            swap(i, menor);
+            i = menor;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,8 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+@QuarkusIntegrationTest
+class ApiResourcesIT extends ApiResourcesTest {
+    // Execute the same tests but in packaged mode (./mvnw verify -Dnative: against the native executable).
+}
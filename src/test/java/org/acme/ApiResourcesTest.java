@@ -0,0 +1,112 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.Matchers.greaterThan;
+
+// CRUD dos três recursos só por HTTP, para rodar também contra o jar empacotado e o executável nativo (ApiResourcesIT).
+@QuarkusTest
+class ApiResourcesTest {
+
+    @Test
+    void testRacas() {
+        given().when().get("/v1/racas").then().statusCode(200).body("size()", greaterThan(0));
+        given().when().get("/v1/racas/1").then().statusCode(200).body("nome", is("SRD"));
+        given().when().get("/v1/racas/search?q=poodle").then().statusCode(200).body("Racas[0].nome", is("Poodle"));
+
+        String chave = UUID.randomUUID().toString();
+        String raca = "{\"nome\":\"Beagle\",\"descricao\":\"Farejador incansável.\"}";
+        int id = given().header("X-Idempotency-Key", chave).contentType(ContentType.JSON).body(raca)
+                .when().post("/v1/racas")
+                .then().statusCode(201).body("id", notNullValue())
+                .extract().path("id");
+        given().header("X-Idempotency-Key", chave).contentType(ContentType.JSON).body(raca)
+                .when().post("/v1/racas")
+                .then().statusCode(200).header("X-Idempotency-Status", "IDEMPOTENT_REPLAY").body("id", is(id));
+
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"Beagle\",\"descricao\":\"Alterada\"}")
+                .when().put("/v1/racas/" + id)
+                .then().statusCode(200).body("descricao", is("Alterada"));
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .when().delete("/v1/racas/" + id)
+                .then().statusCode(204);
+        given().when().get("/v1/racas/" + id).then().statusCode(404);
+    }
+
+    @Test
+    void testCachorros() {
+        given().when().get("/v1/cachorros/1").then().statusCode(200).body("nome", is("Luna"));
+        given().when().get("/v1/cachorros/search?q=Spike").then().statusCode(200).body("Cachorros[0].nome", is("Spike"));
+        given().when().get("/v1/cachorros/available?size=2").then().statusCode(200).body("Cachorros.size()", greaterThan(0));
+
+        int id = given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"Bolinha\",\"dataDeNascimento\":\"2022-02-02\",\"localDeResgate\":\"Recife\","
+                        + "\"ficha\":{\"descricaoHistoria\":\"Encontrado na praia\",\"temperamentoPrincipal\":\"Calmo\"}}")
+                .when().post("/v1/cachorros")
+                .then().statusCode(201).body("disponibilidade", is("DISPONIVEL"))
+                .extract().path("id");
+
+        int version = given().when().get("/v1/cachorros/" + id).then().statusCode(200).extract().path("version");
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType("application/merge-patch+json; charset=UTF-8")
+                .body("{\"version\":" + version + ",\"ficha\":{\"temperamentoPrincipal\":\"Brincalhão\"}}")
+                .when().patch("/v1/cachorros/" + id)
+                .then().statusCode(200)
+                .body("ficha.temperamentoPrincipal", is("Brincalhão"))
+                .body("ficha.descricaoHistoria", is("Encontrado na praia"));
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType("application/merge-patch+json; charset=UTF-8")
+                .body("{\"version\":" + version + ",\"nome\":\"Desatualizado\"}")
+                .when().patch("/v1/cachorros/" + id)
+                .then().statusCode(409);
+
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .when().delete("/v1/cachorros/" + id)
+                .then().statusCode(204);
+        given().when().get("/v1/cachorros/" + id).then().statusCode(404);
+    }
+
+    @Test
+    void testAdocoes() {
+        given().when().get("/v1/adocoes").then().statusCode(200).body("size()", greaterThan(0));
+        given().when().get("/v1/adocoes/1").then().statusCode(200).body("cachorro.nome", is("Luna"));
+        given().when().get("/v1/adocoes/search?q=pendente").then().statusCode(200).body("TotalAdocoes", greaterThan(0));
+
+        int id = given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"dataSolicitacao\":\"2025-01-10\",\"justificativa\":\"Tenho espaço e tempo para ela.\","
+                        + "\"status\":\"Pendente\",\"cachorro\":{\"id\":4},\"racas\":[{\"id\":4}]}")
+                .when().post("/v1/adocoes")
+                .then().statusCode(201).body("cachorro.nome", is("Pipoca"))
+                .extract().path("id");
+        given().when().get("/v1/cachorros/4").then().statusCode(200).body("disponibilidade", is("PENDENTE"));
+
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .when().delete("/v1/adocoes/" + id)
+                .then().statusCode(204);
+        given().when().get("/v1/adocoes/" + id).then().statusCode(404);
+        given().when().get("/v1/cachorros/4").then().statusCode(200).body("disponibilidade", is("DISPONIVEL"));
+    }
+
+    @Test
+    void testErros() {
+        given().contentType(ContentType.JSON).body("{\"nome\":\"Sem chave\"}")
+                .when().post("/v1/racas")
+                .then().statusCode(400);
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"\"}")
+                .when().post("/v1/racas")
+                .then().statusCode(400).body("message", is("Erro de Validação"));
+    }
+
+    @Test
+    void testOpenApi() {
+        given().when().get("/q/openapi?format=json")
+                .then().statusCode(200).body(containsString("/v1/cachorros/{id}"));
+    }
+}
@@ -0,0 +1,206 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.acme.audit.AuditJournal;
+import org.acme.audit.AuditOperation;
+import org.acme.audit.AuditRecord;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.everyItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Perfil próprio: banco só com o import.sql e lote pequeno, para exercitar mais de uma transação por execução.
+@QuarkusTest
+@TestProfile(ArquivamentoAdocoesTest.LotePequeno.class)
+class ArquivamentoAdocoesTest {
+
+    public static class LotePequeno implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("caoamigo.arquivamento.lote", "2", "caoamigo.arquivamento.dias", "180");
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    ArquivamentoAdocoes arquivamento;
+
+    @Inject
+    AuditJournal journal;
+
+    @Test
+    void testArquivar() throws Exception {
+        String marca = "arquivo-" + UUID.randomUUID().toString().substring(0, 8);
+        String antiga = LocalDate.now().minusYears(1).toString();
+        int adotado = novoCachorro("Adotado");
+        int emAnalise = novoCachorro("Em análise");
+        int raca = given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"Vira-lata caramelo\"}")
+                .when().post("/v1/racas")
+                .then().statusCode(201)
+                .extract().path("id");
+
+        int aprovada = novaAdocao(antiga, "Aprovada", adotado, marca, 1, raca);
+        int rejeitada = novaAdocao(antiga, "rejeitada", adotado, marca, 1);
+        int rejeitadaOutro = novaAdocao(antiga, "Rejeitada", emAnalise, marca);
+        int pendente = novaAdocao(antiga, "Pendente", emAnalise, marca, raca);
+        int recente = novaAdocao(LocalDate.now().toString(), "Rejeitada", emAnalise, marca);
+
+        long encerradas = QuarkusTransaction.requiringNew().call(() -> Adocao.count("lower(status) in ?1 and dataSolicitacao < ?2",
+                List.of(Disponibilidade.STATUS_APROVADA, Disponibilidade.STATUS_REJEITADA), LocalDate.now().minusDays(180)));
+        Instant inicio = Instant.now().minusMillis(1);
+        assertEquals(encerradas, arquivamento.arquivar());
+        assertEquals(0, arquivamento.arquivar());
+
+        // Um registro ARCHIVE por lote (de 2), com os ids movidos
+        List<Long> auditadas = aguardarArquivamentos(inicio, encerradas);
+        assertEquals(encerradas, auditadas.size());
+        assertTrue(auditadas.containsAll(List.of((long) aprovada, (long) rejeitada, (long) rejeitadaOutro)), auditadas.toString());
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (long id : List.of(aprovada, rejeitada, rejeitadaOutro)) {
+                assertEquals(null, Adocao.findById(id));
+                assertEquals(id, AdocaoArquivada.<AdocaoArquivada>findById(id).id);
+            }
+            assertEquals(Set.of(1L, (long) raca), AdocaoArquivada.<AdocaoArquivada>findById(aprovada).racaIds);
+            assertEquals(Set.of(1L), AdocaoArquivada.<AdocaoArquivada>findById(rejeitada).racaIds);
+            assertEquals((long) adotado, AdocaoArquivada.<AdocaoArquivada>findById(aprovada).cachorroId);
+            assertEquals(LocalDate.now(), AdocaoArquivada.<AdocaoArquivada>findById(aprovada).dataArquivamento);
+            assertEquals(0L, Adocao.getEntityManager()
+                    .createNativeQuery("select count(*) from adocao_raca where adocao_id in (?1, ?2)", Long.class)
+                    .setParameter(1, aprovada).setParameter(2, rejeitada)
+                    .getSingleResult());
+            // Abertas ou recentes ficam nas tabelas quentes
+            assertEquals(2L, Adocao.count("id in ?1", List.of((long) pendente, (long) recente)));
+        });
+
+        // getById
+        given().when().get("/v1/adocoes/" + aprovada).then().statusCode(404);
+        given().queryParam("includeArchived", true).when().get("/v1/adocoes/" + aprovada)
+                .then().statusCode(200).body("arquivada", is(true)).body("status", is("Aprovada"))
+                .body("cachorroId", is(adotado)).body("racaIds", containsInAnyOrder(1, raca));
+        // Com o parâmetro, a ativa vem no mesmo formato
+        given().queryParam("includeArchived", true).when().get("/v1/adocoes/" + pendente)
+                .then().statusCode(200).body("arquivada", is(false)).body("cachorroId", is(emAnalise))
+                .body("racaIds", containsInAnyOrder(raca));
+        given().when().get("/v1/adocoes/" + pendente).then().statusCode(200).body("cachorro.id", is(emAnalise));
+
+        // getAll: sem o parâmetro só as quentes; com ele, o mesmo formato para as duas
+        given().when().get("/v1/adocoes").then().statusCode(200)
+                .body("findAll { it.justificativa.contains('" + marca + "') }.id", containsInAnyOrder(pendente, recente));
+        given().queryParam("includeArchived", true).when().get("/v1/adocoes").then().statusCode(200)
+                .body("findAll { it.justificativa.contains('" + marca + "') }.id",
+                        containsInAnyOrder(aprovada, rejeitada, rejeitadaOutro, pendente, recente))
+                .body("find { it.id == " + aprovada + " }.arquivada", is(true))
+                .body("find { it.id == " + aprovada + " }.cachorroId", is(adotado))
+                .body("find { it.id == " + aprovada + " }.racaIds", containsInAnyOrder(1, raca))
+                .body("find { it.id == " + pendente + " }.arquivada", is(false))
+                .body("find { it.id == " + pendente + " }.cachorroId", is(emAnalise))
+                .body("find { it.id == " + pendente + " }.racaIds", containsInAnyOrder(raca));
+
+        // search
+        given().queryParam("q", marca).queryParam("size", 10).when().get("/v1/adocoes/search").then().statusCode(200)
+                .body("TotalAdocoes", is(2))
+                .body("Adocoes.id", containsInAnyOrder(pendente, recente));
+        // Com o parâmetro: uma lista, um total e páginas sobre as duas partes, ativas primeiro
+        given().queryParam("q", marca).queryParam("size", 2).queryParam("includeArchived", true)
+                .when().get("/v1/adocoes/search").then().statusCode(200)
+                .body("TotalAdocoes", is(5))
+                .body("TotalPages", is(3))
+                .body("HasMore", is(true))
+                .body("Adocoes.id", contains(pendente, recente))
+                .body("Adocoes.arquivada", everyItem(is(false)));
+        given().queryParam("q", marca).queryParam("size", 3).queryParam("page", 0).queryParam("includeArchived", true)
+                .when().get("/v1/adocoes/search").then().statusCode(200)
+                .body("Adocoes.id", contains(pendente, recente, aprovada))
+                .body("Adocoes.arquivada", contains(false, false, true));
+        given().queryParam("q", marca).queryParam("size", 3).queryParam("page", 1).queryParam("includeArchived", true)
+                .when().get("/v1/adocoes/search").then().statusCode(200)
+                .body("Adocoes.id", contains(rejeitada, rejeitadaOutro))
+                .body("Adocoes.arquivada", everyItem(is(true)))
+                .body("HasMore", is(false));
+        given().queryParam("sort", "inexistente").when().get("/v1/adocoes/search").then().statusCode(400);
+
+        // A aprovação arquivada continua valendo para a disponibilidade
+        given().when().get("/v1/cachorros/" + adotado).then().statusCode(200).body("disponibilidade", is("ADOTADO"));
+        given().when().get("/v1/cachorros/" + emAnalise).then().statusCode(200).body("disponibilidade", is("PENDENTE"));
+        int outra = novaAdocao(LocalDate.now().toString(), "Pendente", adotado, marca);
+        apagarAdocao(outra);
+        given().when().get("/v1/cachorros/" + adotado).then().statusCode(200).body("disponibilidade", is("ADOTADO"));
+        apagarAdocao(pendente);
+        apagarAdocao(recente);
+        given().when().get("/v1/cachorros/" + emAnalise).then().statusCode(200).body("disponibilidade", is("DISPONIVEL"));
+
+        // Exclusões continuam barradas pelas adoções arquivadas
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .when().delete("/v1/cachorros/" + emAnalise)
+                .then().statusCode(409);
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .when().delete("/v1/racas/" + raca)
+                .then().statusCode(409);
+    }
+
+    // O journal grava em outra thread, após o commit de cada lote
+    private List<Long> aguardarArquivamentos(Instant desde, long esperadas) throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        for (int tentativa = 0; tentativa < 50; tentativa++) {
+            ids.clear();
+            for (AuditRecord r : journal.reader().find("Adocao", -1)) {
+                if (r.operation() != AuditOperation.ARCHIVE || r.timestamp().isBefore(desde)) continue;
+                JsonNode lote = MAPPER.readTree(r.diff());
+                assertEquals("AdocaoArquivada", lote.get("destino").asText());
+                assertTrue(lote.get("ids").size() <= 2, lote.toString());
+                lote.get("ids").forEach(id -> ids.add(id.asLong()));
+            }
+            if (ids.size() >= esperadas) return ids;
+            Thread.sleep(100);
+        }
+        return ids;
+    }
+
+    private static int novoCachorro(String nome) {
+        return given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"" + nome + "\",\"dataDeNascimento\":\"2020-01-01\",\"localDeResgate\":\"Aracaju\"}")
+                .when().post("/v1/cachorros")
+                .then().statusCode(201)
+                .extract().path("id");
+    }
+
+    private static int novaAdocao(String data, String status, int cachorro, String marca, int... racas) {
+        StringBuilder ids = new StringBuilder();
+        for (int raca : racas) ids.append(ids.isEmpty() ? "" : ",").append("{\"id\":").append(raca).append('}');
+        return given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"dataSolicitacao\":\"" + data + "\",\"justificativa\":\"Teste " + marca + "\",\"status\":\"" + status
+                        + "\",\"cachorro\":{\"id\":" + cachorro + "},\"racas\":[" + ids + "]}")
+                .when().post("/v1/adocoes")
+                .then().statusCode(201)
+                .extract().path("id");
+    }
+
+    private static void apagarAdocao(int id) {
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .when().delete("/v1/adocoes/" + id)
+                .then().statusCode(204);
+    }
+}
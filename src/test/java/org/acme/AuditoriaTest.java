@@ -0,0 +1,105 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.acme.audit.AuditJournal;
+import org.acme.audit.AuditOperation;
+import org.acme.audit.AuditRecord;
+import org.acme.audit.Auditor;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// O snapshot "depois" de um update é tirado após o flush: a version gravada é a nova.
+@QuarkusTest
+class AuditoriaTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    AuditJournal journal;
+
+    @Inject
+    Auditor auditor;
+
+    @Test
+    void testPutRegistraVersaoEFichaNova() throws Exception {
+        Instant inicio = Instant.now().minusMillis(1);
+        int id = given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"Auditado\",\"dataDeNascimento\":\"2019-09-09\",\"localDeResgate\":\"Natal\"}")
+                .when().post("/v1/cachorros")
+                .then().statusCode(201)
+                .extract().path("id");
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"Auditado\",\"dataDeNascimento\":\"2019-09-09\",\"localDeResgate\":\"Natal\","
+                        + "\"ficha\":{\"temperamentoPrincipal\":\"Curioso\"}}")
+                .when().put("/v1/cachorros/" + id)
+                .then().statusCode(200);
+
+        JsonNode diff = MAPPER.readTree(aguardarUpdate("Cachorro", id, inicio).diff());
+        assertEquals(1, diff.get("version").asInt(), diff.toString());
+        assertTrue(diff.get("ficha").get("id").canConvertToLong(), diff.toString());
+    }
+
+    @Test
+    void testPutAdocaoRegistraVersao() throws Exception {
+        Instant inicio = Instant.now().minusMillis(1);
+        int id = given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"dataSolicitacao\":\"2025-03-03\",\"justificativa\":\"Auditoria\",\"status\":\"Pendente\",\"cachorro\":{\"id\":5}}")
+                .when().post("/v1/adocoes")
+                .then().statusCode(201)
+                .extract().path("id");
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"dataSolicitacao\":\"2025-03-03\",\"justificativa\":\"Auditoria revisada\",\"status\":\"Pendente\",\"cachorro\":{\"id\":5}}")
+                .when().put("/v1/adocoes/" + id)
+                .then().statusCode(200);
+
+        JsonNode diff = MAPPER.readTree(aguardarUpdate("Adocao", id, inicio).diff());
+        assertEquals(1, diff.get("version").asInt(), diff.toString());
+        assertEquals("Auditoria revisada", diff.get("justificativa").asText());
+
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .when().delete("/v1/adocoes/" + id)
+                .then().statusCode(204);
+    }
+
+    @Test
+    @Transactional
+    void testSnapshotNaoCarregaAssociacoesLazy() {
+        Adocao adocao = Adocao.findById(1L);
+        JsonNode snapshot = auditor.snapshot(adocao);
+        assertFalse(Hibernate.isInitialized(adocao.racas));
+        assertFalse(snapshot.has("racas"), snapshot.toString());
+        assertEquals(adocao.justificativa, snapshot.get("justificativa").asText());
+        assertEquals(adocao.cachorro.nome, snapshot.get("cachorro").get("nome").asText());
+
+        // Já carregada pela requisição, entra no snapshot
+        Hibernate.initialize(adocao.racas);
+        assertEquals(adocao.racas.size(), auditor.snapshot(adocao).get("racas").size());
+    }
+
+    // O journal grava em outra thread, após o commit; o diretório sobrevive entre execuções, por isso o filtro por data
+    private AuditRecord aguardarUpdate(String entidade, long id, Instant desde) throws IOException, InterruptedException {
+        for (int tentativa = 0; tentativa < 50; tentativa++) {
+            List<AuditRecord> registros = journal.reader().find(entidade, id);
+            for (AuditRecord r : registros) {
+                if (r.operation() == AuditOperation.UPDATE && !r.timestamp().isBefore(desde)) return r;
+            }
+            Thread.sleep(100);
+        }
+        return fail("UPDATE de " + entidade + "#" + id + " não apareceu no journal");
+    }
+}
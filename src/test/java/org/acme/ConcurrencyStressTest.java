@@ -0,0 +1,230 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import static org.acme.StressRunner.get;
+import static org.acme.StressRunner.json;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Invariantes dos filtros e dos endpoints de escrita sob concorrência; a vazão de cada cenário vai para o log ([stress]).
+@QuarkusTest
+class ConcurrencyStressTest {
+
+    private static final Logger LOG = Logger.getLogger(ConcurrencyStressTest.class);
+    private static final int THREADS = 32;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TestHTTPResource("/v1/cachorros")
+    URI cachorros;
+
+    @TestHTTPResource("/v1/adocoes")
+    URI adocoes;
+
+    @Test
+    void testInsertConcorrenteComMesmaChave() {
+        String nome = "Stress " + UUID.randomUUID().toString().substring(0, 8);
+        String chave = UUID.randomUUID().toString();
+
+        List<HttpResponse<String>> respostas = StressRunner.run("POST mesma chave", THREADS, 200,
+                i -> json("POST", cachorros, chave, "application/json", novoCachorro(nome)));
+
+        Map<Integer, Long> porStatus = contarStatus(respostas);
+        assertEquals(1L, porStatus.getOrDefault(201, 0L), "Só uma requisição deve criar o cachorro: " + porStatus);
+        assertTrue(Set.of(200, 201, 409).containsAll(porStatus.keySet()), "Status inesperado: " + porStatus);
+
+        long id = idDe(respostas.stream().filter(r -> r.statusCode() == 201).findFirst().orElseThrow());
+        for (HttpResponse<String> r : respostas) {
+            if (r.statusCode() == 200) {
+                assertEquals("IDEMPOTENT_REPLAY", r.headers().firstValue("X-Idempotency-Status").orElse(null));
+                assertEquals(id, idDe(r));
+            }
+        }
+        assertEquals(1L, (long) QuarkusTransaction.requiringNew().call(() -> Cachorro.count("nome", nome)));
+
+        // Depois de concluída, a chave continua reservada para o resultado gravado
+        HttpResponse<String> replay = json("POST", cachorros, chave, "application/json", novoCachorro(nome));
+        assertEquals(200, replay.statusCode());
+        assertEquals(id, idDe(replay));
+    }
+
+    @Test
+    void testInsertsEDeletesConcorrentes() {
+        String prefixo = "Stress " + UUID.randomUUID().toString().substring(0, 8);
+        long antes = QuarkusTransaction.requiringNew().call(() -> Cachorro.count());
+
+        List<HttpResponse<String>> criados = StressRunner.run("POST chaves distintas", THREADS, 300,
+                i -> json("POST", cachorros, UUID.randomUUID().toString(), "application/json", novoCachorro(prefixo + " " + i)));
+
+        assertEquals(Map.of(201, 300L), contarStatus(criados));
+        Set<Long> ids = criados.stream().map(ConcurrencyStressTest::idDe).collect(Collectors.toSet());
+        assertEquals(300, ids.size());
+        assertEquals(antes + 300, (long) QuarkusTransaction.requiringNew().call(() -> Cachorro.count()));
+
+        // 4 DELETEs concorrentes (chaves distintas) por cachorro: exatamente um remove
+        List<Long> alvos = List.copyOf(ids);
+        List<HttpResponse<String>> removidos = StressRunner.run("DELETE concorrente", THREADS, alvos.size() * 4,
+                i -> json("DELETE", URI.create(cachorros + "/" + alvos.get(i / 4)), UUID.randomUUID().toString(), null, null));
+
+        Map<Integer, Long> porStatus = contarStatus(removidos);
+        assertEquals(300L, porStatus.getOrDefault(204, 0L), "Um 204 por cachorro: " + porStatus);
+        assertTrue(Set.of(204, 404, 409).containsAll(porStatus.keySet()), "Status inesperado: " + porStatus);
+        assertEquals(antes, (long) QuarkusTransaction.requiringNew().call(() -> Cachorro.count()));
+    }
+
+    @Test
+    void testPutConcorrenteComMesmaChave() {
+        long id = idDe(json("POST", cachorros, UUID.randomUUID().toString(), "application/json", novoCachorro("Stress PUT")));
+        URI uri = URI.create(cachorros + "/" + id);
+        long versaoInicial = versaoDe(get(uri));
+        String chave = UUID.randomUUID().toString();
+
+        List<HttpResponse<String>> respostas = StressRunner.run("PUT mesma chave", THREADS, 200,
+                i -> json("PUT", uri, chave, "application/json", novoCachorro("Stress PUT alterado")));
+
+        Map<Integer, Long> porStatus = contarStatus(respostas);
+        assertTrue(Set.of(200, 409).containsAll(porStatus.keySet()), "Status inesperado: " + porStatus);
+        long executados = respostas.stream()
+                .filter(r -> r.statusCode() == 200 && r.headers().firstValue("X-Idempotency-Status").isEmpty())
+                .count();
+        assertEquals(1, executados, "O PUT deve executar uma única vez");
+        assertEquals(versaoInicial + 1, versaoDe(get(uri)));
+    }
+
+    @Test
+    void testPatchConcorrenteSemPerdaDeAtualizacoes() {
+        long id = idDe(json("POST", cachorros, UUID.randomUUID().toString(), "application/json", novoCachorro("Stress PATCH")));
+        URI uri = URI.create(cachorros + "/" + id);
+        int threads = 8;
+        int incrementosPorThread = 10;
+
+        // Cada thread faz ler-modificar-escrever na história, anexando marcadores e repetindo em caso de 409
+        List<Integer> tentativas = StressRunner.run("PATCH ler-modificar-escrever", threads, threads, t -> {
+            int conflitos = 0;
+            for (int n = 0; n < incrementosPorThread; ) {
+                JsonNode atual = lerJson(get(uri));
+                ObjectNode patch = MAPPER.createObjectNode();
+                patch.put("version", atual.get("version").asLong());
+                patch.putObject("ficha").put("descricaoHistoria",
+                        atual.path("ficha").path("descricaoHistoria").asText("") + "[" + t + "." + n + "]");
+                HttpResponse<String> r = json("PATCH", uri, UUID.randomUUID().toString(), "application/merge-patch+json", patch.toString());
+                if (r.statusCode() == 200) {
+                    n++;
+                } else {
+                    assertEquals(409, r.statusCode(), r.body());
+                    assertTrue(++conflitos < 10_000, "Conflitos demais na thread " + t);
+                }
+            }
+            return conflitos;
+        });
+
+        JsonNode fim = lerJson(get(uri));
+        String historia = fim.get("ficha").get("descricaoHistoria").asText();
+        for (int t = 0; t < threads; t++) {
+            for (int n = 0; n < incrementosPorThread; n++) {
+                String marcador = "[" + t + "." + n + "]";
+                assertEquals(historia.indexOf(marcador), historia.lastIndexOf(marcador), "Marcador duplicado " + marcador);
+                assertTrue(historia.contains(marcador), "Atualização perdida: " + marcador);
+            }
+        }
+        assertEquals(threads * incrementosPorThread, fim.get("version").asLong(),
+                "Cada PATCH aplicado deve incrementar a version exatamente uma vez");
+        LOG.infof("[stress] PATCH ler-modificar-escrever: %d conflitos (409) para %d atualizações",
+                tentativas.stream().mapToInt(Integer::intValue).sum(), threads * incrementosPorThread);
+    }
+
+    @Test
+    void testDisponibilidadeComAdocoesConcorrentes() {
+        int porCachorro = 8;
+        List<Long> ids = StressRunner.run("POST cachorros para adoção", THREADS, 20,
+                i -> idDe(json("POST", cachorros, UUID.randomUUID().toString(), "application/json", novoCachorro("Stress adoção " + i))));
+
+        // Para cada cachorro, uma adoção aprovada e várias pendentes ao mesmo tempo: sem a trava no cachorro,
+        // a transação da pendente podia derivar PENDENTE sem ver a aprovada e gravar por último
+        List<HttpResponse<String>> respostas = StressRunner.run("POST adoções concorrentes", THREADS, ids.size() * porCachorro,
+                i -> json("POST", adocoes, UUID.randomUUID().toString(), "application/json",
+                        novaAdocao(ids.get(i / porCachorro), i % porCachorro == porCachorro / 2 ? "Aprovada" : "Pendente")));
+
+        assertEquals(Map.of(201, (long) respostas.size()), contarStatus(respostas));
+        for (long id : ids) {
+            assertEquals("ADOTADO", lerJson(get(URI.create(cachorros + "/" + id))).get("disponibilidade").asText(), "Cachorro " + id);
+        }
+        List<Disponibilidade> noBanco = QuarkusTransaction.requiringNew().call(() -> Cachorro.<Cachorro>list("id in ?1", ids)
+                .stream().map(c -> c.disponibilidade).toList());
+        assertEquals(List.of(Disponibilidade.ADOTADO), noBanco.stream().distinct().toList());
+
+        // Removidas todas ao mesmo tempo, cada cachorro volta a ficar disponível; e os dados dos outros testes não mudam
+        List<Long> adocaoIds = respostas.stream().map(ConcurrencyStressTest::idDe).toList();
+        List<HttpResponse<String>> removidas = StressRunner.run("DELETE adoções concorrentes", THREADS, adocaoIds.size(),
+                i -> json("DELETE", URI.create(adocoes + "/" + adocaoIds.get(i)), UUID.randomUUID().toString(), null, null));
+        assertEquals(Map.of(204, (long) removidas.size()), contarStatus(removidas));
+        List<Disponibilidade> depois = QuarkusTransaction.requiringNew().call(() -> Cachorro.<Cachorro>list("id in ?1", ids)
+                .stream().map(c -> c.disponibilidade).toList());
+        assertEquals(List.of(Disponibilidade.DISPONIVEL), depois.stream().distinct().toList());
+        StressRunner.run("DELETE cachorros para adoção", THREADS, ids.size(),
+                i -> json("DELETE", URI.create(cachorros + "/" + ids.get(i)), UUID.randomUUID().toString(), null, null));
+    }
+
+    private static String novaAdocao(long cachorro, String status) {
+        ObjectNode adocao = MAPPER.createObjectNode()
+                .put("dataSolicitacao", "2025-06-01")
+                .put("justificativa", "Stress")
+                .put("status", status);
+        adocao.putObject("cachorro").put("id", cachorro);
+        adocao.putArray("racas");
+        return adocao.toString();
+    }
+
+    private static String novoCachorro(String nome) {
+        ObjectNode cachorro = MAPPER.createObjectNode()
+                .put("nome", nome)
+                .put("dataDeNascimento", "2021-04-10")
+                .put("localDeResgate", "Campinas");
+        cachorro.putObject("ficha")
+                .put("descricaoHistoria", "")
+                .put("temperamentoPrincipal", "Brincalhão")
+                .put("habilidadesEspeciais", "Senta e dá a pata");
+        return cachorro.toString();
+    }
+
+    private static Map<Integer, Long> contarStatus(List<HttpResponse<String>> respostas) {
+        return respostas.stream().collect(Collectors.groupingBy(HttpResponse::statusCode, Collectors.counting()));
+    }
+
+    private static JsonNode lerJson(HttpResponse<String> resposta) {
+        assertEquals(200, resposta.statusCode(), resposta.body());
+        try {
+            return MAPPER.readTree(resposta.body());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long idDe(HttpResponse<String> resposta) {
+        try {
+            return MAPPER.readTree(resposta.body()).get("id").asLong();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long versaoDe(HttpResponse<String> resposta) {
+        return lerJson(resposta).get("version").asLong();
+    }
+}
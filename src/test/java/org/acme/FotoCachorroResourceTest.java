@@ -0,0 +1,260 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.imageio.ImageIO;
+import org.acme.foto.FotoStore;
+import org.jboss.resteasy.reactive.server.core.ResteasyReactiveRequestContext;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveContainerRequestContext;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class FotoCachorroResourceTest {
+
+    private static final String SONDA = "X-Teste-Writer-Interceptors";
+
+    @Inject
+    FotoStore store;
+
+    /**
+     * Só para os testes: responde quantos WriterInterceptors se aplicam à requisição que pedir.
+     * O RESTEasy só envia Path e PathPart pelo writeResponse dos handlers de arquivo (sendfile)
+     * quando não há nenhum; com um, o arquivo é copiado pela cadeia de interceptors.
+     */
+    @Provider
+    public static class WriterInterceptorsDaRequisicao implements ContainerResponseFilter {
+        @Override
+        public void filter(ContainerRequestContext req, ContainerResponseContext res) {
+            if (req.getHeaderString(SONDA) == null) return;
+            ResteasyReactiveRequestContext contexto = (ResteasyReactiveRequestContext)
+                    ((ResteasyReactiveContainerRequestContext) req).getServerRequestContext();
+            WriterInterceptor[] interceptors = contexto.getWriterInterceptors();
+            res.getHeaders().add(SONDA, interceptors == null ? 0 : interceptors.length);
+        }
+    }
+
+    @Test
+    void testUploadDownloadERange() throws IOException {
+        int cachorro = novoCachorro();
+        byte[] png = png();
+        String hash = sha256(png);
+
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType("image/png").body(png)
+                .when().post(fotos(cachorro))
+                .then().statusCode(201)
+                .body("hash", is(hash))
+                .body("tamanho", is(png.length))
+                .body("contentType", is("image/png"));
+        int fotoId = given().when().get(fotos(cachorro)).then().statusCode(200).extract().path("[0].id");
+        String foto = fotos(cachorro) + "/" + fotoId;
+        String etag = "\"" + hash + "\"";
+
+        Response inteira = given().when().get(foto);
+        assertEquals(200, inteira.statusCode());
+        assertArrayEquals(png, inteira.asByteArray());
+        assertEquals(etag, inteira.header("ETag"));
+        assertEquals("bytes", inteira.header("Accept-Ranges"));
+
+        Response inicio = given().header("Range", "bytes=0-9").when().get(foto);
+        assertEquals(206, inicio.statusCode());
+        assertEquals("bytes 0-9/" + png.length, inicio.header("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(png, 0, 10), inicio.asByteArray());
+
+        Response fim = given().header("Range", "bytes=-5").when().get(foto);
+        assertEquals(206, fim.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(png, png.length - 5, png.length), fim.asByteArray());
+
+        given().header("Range", "bytes=" + png.length + "-").when().get(foto)
+                .then().statusCode(416).header("Content-Range", "bytes */" + png.length);
+        // If-Range com outra ETag: o intervalo é ignorado e a foto vai inteira
+        given().header("Range", "bytes=0-9").header("If-Range", "\"outra\"").when().get(foto)
+                .then().statusCode(200).header("Content-Length", String.valueOf(png.length));
+        given().header("If-None-Match", etag).when().get(foto)
+                .then().statusCode(304).header("ETag", etag);
+
+        given().when().get(fotos(cachorro) + "/999999").then().statusCode(404);
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType("image/bmp").body(png)
+                .when().post(fotos(cachorro))
+                .then().statusCode(415);
+    }
+
+    @Test
+    void testMiniatura() throws IOException {
+        int cachorro = novoCachorro();
+        byte[] png = png();
+        String hash = sha256(png);
+        int fotoId = enviar(cachorro, png);
+        String miniatura = fotos(cachorro) + "/" + fotoId + "/miniatura";
+        String etag = "\"" + hash + "-128\"";
+
+        Response resposta = given().queryParam("tamanho", 128).when().get(miniatura);
+        assertEquals(200, resposta.statusCode());
+        assertEquals("image/jpeg", resposta.contentType());
+        assertEquals(etag, resposta.header("ETag"));
+        BufferedImage imagem = ImageIO.read(resposta.asInputStream());
+        assertEquals(128, Math.max(imagem.getWidth(), imagem.getHeight()));
+
+        given().queryParam("tamanho", 128).header("If-None-Match", etag).when().get(miniatura)
+                .then().statusCode(304);
+        given().queryParam("tamanho", 100).when().get(miniatura).then().statusCode(400);
+
+        // Sem o original no disco: 404, e não 500 do ImageIO
+        Files.delete(store.original(hash));
+        given().queryParam("tamanho", 256).when().get(miniatura).then().statusCode(404);
+        given().when().get(fotos(cachorro) + "/" + fotoId).then().statusCode(404);
+        // A ETag é verificada antes de gerar a miniatura
+        given().queryParam("tamanho", 256).header("If-None-Match", "\"" + hash + "-256\"").when().get(miniatura)
+                .then().statusCode(304);
+    }
+
+    @Test
+    void testArquivosSaemPorSendfile() throws IOException {
+        int cachorro = novoCachorro();
+        byte[] png = png();
+        int fotoId = enviar(cachorro, png);
+        String foto = fotos(cachorro) + "/" + fotoId;
+
+        // Path, PathPart e miniatura sem nenhum WriterInterceptor; o Server-Timing continua vindo do filtro
+        given().header(SONDA, "1").when().get(foto)
+                .then().statusCode(200).header(SONDA, "0").header("Server-Timing", containsString("db;dur="));
+        given().header(SONDA, "1").header("Range", "bytes=0-9").when().get(foto)
+                .then().statusCode(206).header(SONDA, "0");
+        given().header(SONDA, "1").queryParam("tamanho", 128).when().get(foto + "/miniatura")
+                .then().statusCode(200).header(SONDA, "0");
+        // Os recursos JSON continuam com o interceptor de log
+        given().header(SONDA, "1").when().get(fotos(cachorro))
+                .then().statusCode(200).header(SONDA, "1");
+    }
+
+    @Test
+    void testDeduplicacaoERemocaoDosArquivos() throws IOException {
+        int cachorro = novoCachorro();
+        byte[] png = png();
+        String hash = sha256(png);
+
+        int primeira = enviar(cachorro, png);
+        int segunda = given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .multiPart("foto", "foto.png", png, "image/png")
+                .when().post(fotos(cachorro))
+                .then().statusCode(201).body("hash", is(hash))
+                .extract().path("id");
+        assertTrue(primeira != segunda);
+        assertTrue(Files.exists(store.original(hash)));
+        given().queryParam("tamanho", 128).when().get(fotos(cachorro) + "/" + primeira + "/miniatura").then().statusCode(200);
+        Path miniatura = store.miniatura(hash, 128);
+        assertTrue(Files.exists(miniatura));
+
+        // O conteúdo ainda é usado pela segunda foto
+        apagar(cachorro, primeira);
+        assertTrue(Files.exists(store.original(hash)));
+        given().when().get(fotos(cachorro) + "/" + segunda).then().statusCode(200);
+
+        apagar(cachorro, segunda);
+        assertFalse(Files.exists(store.original(hash)));
+        assertFalse(Files.exists(miniatura), "A miniatura deve sair junto com o original");
+    }
+
+    @Test
+    void testUploadParaCachorroInexistenteNaoDeixaArquivo() throws IOException {
+        byte[] png = png();
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType("image/png").body(png)
+                .when().post(fotos(999999))
+                .then().statusCode(404);
+        assertFalse(Files.exists(store.original(sha256(png))));
+    }
+
+    @Test
+    void testIntervaloParse() {
+        assertEquals(new FotoCachorroResource.Intervalo(0, 9), FotoCachorroResource.Intervalo.parse("bytes=0-9", 100));
+        assertEquals(new FotoCachorroResource.Intervalo(90, 99), FotoCachorroResource.Intervalo.parse("bytes=90-", 100));
+        assertEquals(new FotoCachorroResource.Intervalo(90, 99), FotoCachorroResource.Intervalo.parse("bytes=-10", 100));
+        assertEquals(new FotoCachorroResource.Intervalo(0, 99), FotoCachorroResource.Intervalo.parse("bytes=-200", 100));
+        assertEquals(new FotoCachorroResource.Intervalo(50, 99), FotoCachorroResource.Intervalo.parse("bytes=50-500", 100));
+
+        assertSame(FotoCachorroResource.Intervalo.NAO_SATISFAZIVEL, FotoCachorroResource.Intervalo.parse("bytes=100-", 100));
+        assertSame(FotoCachorroResource.Intervalo.NAO_SATISFAZIVEL, FotoCachorroResource.Intervalo.parse("bytes=-0", 100));
+        assertSame(FotoCachorroResource.Intervalo.NAO_SATISFAZIVEL, FotoCachorroResource.Intervalo.parse("bytes=-1", 0));
+
+        // Inválidos ou não suportados: a foto vai inteira
+        assertNull(FotoCachorroResource.Intervalo.parse("bytes=5-2", 100));
+        assertNull(FotoCachorroResource.Intervalo.parse("bytes=0-1,3-4", 100));
+        assertNull(FotoCachorroResource.Intervalo.parse("items=0-1", 100));
+        assertNull(FotoCachorroResource.Intervalo.parse("bytes=a-b", 100));
+        assertNull(FotoCachorroResource.Intervalo.parse("bytes=10", 100));
+    }
+
+    private static String fotos(int cachorro) {
+        return "/v1/cachorros/" + cachorro + "/fotos";
+    }
+
+    private static int novoCachorro() {
+        return given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"Fotogênico\",\"dataDeNascimento\":\"2021-03-03\",\"localDeResgate\":\"Maceió\"}")
+                .when().post("/v1/cachorros")
+                .then().statusCode(201)
+                .extract().path("id");
+    }
+
+    private static int enviar(int cachorro, byte[] png) {
+        return given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType("image/png").body(png)
+                .when().post(fotos(cachorro))
+                .then().statusCode(201)
+                .extract().path("id");
+    }
+
+    private static void apagar(int cachorro, int fotoId) {
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .when().delete(fotos(cachorro) + "/" + fotoId)
+                .then().statusCode(204);
+    }
+
+    // Conteúdo diferente a cada chamada, para não deduplicar com fotos de outros testes ou execuções
+    private static byte[] png() throws IOException {
+        BufferedImage imagem = new BufferedImage(320, 200, BufferedImage.TYPE_INT_RGB);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int x = 0; x < imagem.getWidth(); x += 8) {
+            for (int y = 0; y < imagem.getHeight(); y += 8) {
+                imagem.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(imagem, "png", out);
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] conteudo) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
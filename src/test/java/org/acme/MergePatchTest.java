@@ -0,0 +1,126 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+@QuarkusTest
+class MergePatchTest {
+
+    private static final String MERGE_PATCH = "application/merge-patch+json; charset=UTF-8";
+
+    @Test
+    void testFichaMescladaCampoACampo() {
+        int id = novoCachorro();
+        given().when().get("/v1/cachorros/" + id).then().body("version", is(0));
+
+        patch("/v1/cachorros/" + id, "{\"version\":0,\"ficha\":{\"temperamentoPrincipal\":\"Brincalhão\"}}")
+                .then().statusCode(200)
+                .body("ficha.temperamentoPrincipal", is("Brincalhão"))
+                .body("ficha.descricaoHistoria", is("Achado na chuva"))
+                .body("ficha.habilidadesEspeciais", is("Senta"))
+                .body("nome", is("Remendo"))
+                .body("version", is(1));
+
+        // null remove só o campo enviado
+        patch("/v1/cachorros/" + id, "{\"version\":1,\"ficha\":{\"habilidadesEspeciais\":null}}")
+                .then().statusCode(200)
+                .body("ficha.habilidadesEspeciais", nullValue())
+                .body("ficha.temperamentoPrincipal", is("Brincalhão"))
+                .body("version", is(2));
+
+        // Cachorro e ficha no mesmo patch: ainda um único incremento
+        patch("/v1/cachorros/" + id, "{\"version\":2,\"nome\":\"Remendado\",\"ficha\":{\"descricaoHistoria\":\"Adotado pelo bairro\"}}")
+                .then().statusCode(200)
+                .body("nome", is("Remendado"))
+                .body("ficha.descricaoHistoria", is("Adotado pelo bairro"))
+                .body("version", is(3));
+        given().when().get("/v1/cachorros/" + id).then().statusCode(200)
+                .body("version", is(3))
+                .body("localDeResgate", is("Aracaju"))
+                .body("ficha.habilidadesEspeciais", nullValue());
+
+        patch("/v1/cachorros/" + id, "{\"version\":3,\"ficha\":null}")
+                .then().statusCode(200)
+                .body("ficha", nullValue())
+                .body("version", is(4));
+    }
+
+    @Test
+    void testVersao() {
+        int id = novoCachorro();
+        patch("/v1/cachorros/" + id, "{\"nome\":\"Sem versão\"}").then().statusCode(428);
+        patch("/v1/cachorros/" + id, "{\"version\":0,\"nome\":\"Primeiro\"}").then().statusCode(200).body("version", is(1));
+        // Versão antiga: 409, seja no próprio cachorro ou só na ficha
+        patch("/v1/cachorros/" + id, "{\"version\":0,\"nome\":\"Segundo\"}").then().statusCode(409);
+        patch("/v1/cachorros/" + id, "{\"version\":0,\"ficha\":{\"temperamentoPrincipal\":\"Atrasado\"}}").then().statusCode(409);
+        given().when().get("/v1/cachorros/" + id).then().statusCode(200)
+                .body("nome", is("Primeiro"))
+                .body("ficha.temperamentoPrincipal", is("Calmo"))
+                .body("version", is(1));
+
+        // id, version e disponibilidade não vêm do cliente; validação continua valendo
+        patch("/v1/cachorros/" + id, "{\"version\":1,\"id\":999,\"disponibilidade\":\"ADOTADO\",\"localDeResgate\":\"Natal\"}")
+                .then().statusCode(200)
+                .body("id", is(id))
+                .body("disponibilidade", is("DISPONIVEL"));
+        patch("/v1/cachorros/" + id, "{\"version\":2,\"nome\":null}").then().statusCode(400);
+        patch("/v1/cachorros/" + id, "[1,2]").then().statusCode(400);
+        patch("/v1/cachorros/999999", "{\"version\":0}").then().statusCode(404);
+    }
+
+    @Test
+    void testAdocao() {
+        int cachorro = novoCachorro();
+        int id = given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"dataSolicitacao\":\"2025-05-05\",\"justificativa\":\"Tenho quintal.\",\"status\":\"Pendente\","
+                        + "\"cachorro\":{\"id\":" + cachorro + "},\"racas\":[{\"id\":1}]}")
+                .when().post("/v1/adocoes")
+                .then().statusCode(201)
+                .extract().path("id");
+
+        // cachorro.id inválido é rejeitado, e não interpretado como remover o cachorro
+        patch("/v1/adocoes/" + id, "{\"version\":0,\"cachorro\":{\"id\":\"abc\"}}").then().statusCode(400);
+        patch("/v1/adocoes/" + id, "{\"version\":0,\"cachorro\":{}}").then().statusCode(400);
+        patch("/v1/adocoes/" + id, "{\"version\":0,\"racas\":[{\"id\":\"x\"}]}").then().statusCode(400);
+        patch("/v1/adocoes/" + id, "{\"version\":0,\"racas\":[{\"id\":999999}]}").then().statusCode(400);
+        given().when().get("/v1/adocoes/" + id).then().statusCode(200)
+                .body("cachorro.id", is(cachorro))
+                .body("version", is(0));
+
+        patch("/v1/adocoes/" + id, "{\"version\":0,\"justificativa\":\"Tenho quintal e tempo.\",\"racas\":[{\"id\":1},{\"id\":3}]}")
+                .then().statusCode(200)
+                .body("status", is("Pendente"))
+                .body("justificativa", is("Tenho quintal e tempo."))
+                .body("racas.id", containsInAnyOrder(1, 3));
+        patch("/v1/adocoes/" + id, "{\"version\":0,\"status\":\"Aprovada\"}").then().statusCode(409);
+
+        // null remove o cachorro, que volta a ficar disponível
+        int version = given().when().get("/v1/adocoes/" + id).then().extract().path("version");
+        given().when().get("/v1/cachorros/" + cachorro).then().body("disponibilidade", is("PENDENTE"));
+        patch("/v1/adocoes/" + id, "{\"version\":" + version + ",\"cachorro\":null}")
+                .then().statusCode(200)
+                .body("cachorro", nullValue());
+        given().when().get("/v1/cachorros/" + cachorro).then().body("disponibilidade", is("DISPONIVEL"));
+    }
+
+    private static io.restassured.response.Response patch(String path, String body) {
+        return given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(MERGE_PATCH).body(body)
+                .when().patch(path);
+    }
+
+    private static int novoCachorro() {
+        return given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"Remendo\",\"dataDeNascimento\":\"2021-06-06\",\"localDeResgate\":\"Aracaju\","
+                        + "\"ficha\":{\"descricaoHistoria\":\"Achado na chuva\",\"temperamentoPrincipal\":\"Calmo\",\"habilidadesEspeciais\":\"Senta\"}}")
+                .when().post("/v1/cachorros")
+                .then().statusCode(201)
+                .extract().path("id");
+    }
+}
@@ -0,0 +1,68 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.acme.StressRunner.get;
+import static org.acme.StressRunner.json;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Perfil próprio: a aplicação sobe com um orçamento novo e pequeno, sem disputar o contador com os outros testes.
+@QuarkusTest
+@TestProfile(RateLimitStressTest.OrcamentoPequeno.class)
+class RateLimitStressTest {
+
+    private static final int LIMITE = 250;
+
+    public static class OrcamentoPequeno implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "caoamigo.rate-limit.max-requests", String.valueOf(LIMITE),
+                    "caoamigo.rate-limit.window", "10m");
+        }
+    }
+
+    @TestHTTPResource("/v1/racas")
+    URI racas;
+
+    @Test
+    void testOrcamentoExatoSobConcorrencia() {
+        URI raca = URI.create(racas + "/1");
+        List<HttpResponse<String>> respostas = StressRunner.run("GET com rate limit", 32, 1000, i -> get(raca));
+
+        Map<Integer, Long> porStatus = respostas.stream()
+                .collect(Collectors.groupingBy(HttpResponse::statusCode, Collectors.counting()));
+        assertEquals(Map.of(200, (long) LIMITE, 429, 1000L - LIMITE), porStatus);
+
+        // Cada requisição aceita consumiu uma unidade diferente do orçamento
+        Set<Integer> restantes = respostas.stream()
+                .filter(r -> r.statusCode() == 200)
+                .map(r -> Integer.valueOf(r.headers().firstValue("X-RateLimit-Remaining").orElseThrow()))
+                .collect(Collectors.toCollection(TreeSet::new));
+        assertEquals(IntStream.range(0, LIMITE).boxed().collect(Collectors.toCollection(TreeSet::new)), restantes);
+        respostas.stream()
+                .filter(r -> r.statusCode() == 429)
+                .forEach(r -> assertEquals("600", r.headers().firstValue("Retry-After").orElse(null)));
+
+        // Barrada pelo limite, a escrita não chega a reservar a chave de idempotência nem a executar
+        HttpResponse<String> escrita = json("POST", racas, UUID.randomUUID().toString(), "application/json",
+                "{\"nome\":\"Stress\",\"descricao\":\"Barrada pelo limite\"}");
+        assertEquals(429, escrita.statusCode());
+        assertEquals(0L, (long) QuarkusTransaction.requiringNew()
+                .call(() -> Raca.count("nome", "Stress")));
+    }
+}
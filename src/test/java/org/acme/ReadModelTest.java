@@ -0,0 +1,120 @@
+package org.acme;
+
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.acme.readmodel.CatalogoReadModel;
+import org.acme.recomendacao.IndiceRecomendacao;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Com o modelo de leitura ligado, os GETs de /v1/cachorros devem responder o mesmo que a consulta no banco.
+@QuarkusTest
+@TestProfile(ReadModelTest.ModeloDeLeitura.class)
+class ReadModelTest {
+
+    public static class ModeloDeLeitura implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("caoamigo.read-model.enabled", "true");
+        }
+    }
+
+    @Inject
+    CatalogoReadModel readModel;
+
+    @Inject
+    IndiceRecomendacao recomendacao;
+
+    @Inject
+    DisponibilidadeReconciliacao reconciliacao;
+
+    @Test
+    void testPesquisaIgualAoBanco() {
+        assertTrue(readModel.isAtivo());
+        for (String q : List.of("", "a", "SÃO", "o_h", "%", "_", "xyz", "i%o")) {
+            int size = 2;
+            long total = QuarkusTransaction.requiringNew().call(() -> consulta(q).count());
+            for (int page = 0; page <= total / size; page++) {
+                int p = page;
+                List<Long> banco = QuarkusTransaction.requiringNew().call(() ->
+                        consulta(q).page(p, size).list().stream().map(c -> c.id).toList());
+                CatalogoReadModel.Pagina pagina = readModel.search(q, "id", false, page, size);
+                assertEquals(banco, pagina.itens().stream().map(c -> c.id).toList(), "q=" + q + " page=" + page);
+                assertEquals(total, pagina.total(), "q=" + q);
+            }
+        }
+    }
+
+    @Test
+    void testEscritasRefletidas() {
+        String nome = "Modelo " + UUID.randomUUID().toString().substring(0, 8);
+        int id = given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"" + nome + "\",\"dataDeNascimento\":\"2022-02-02\",\"localDeResgate\":\"Olinda\"}")
+                .when().post("/v1/cachorros")
+                .then().statusCode(201)
+                .extract().path("id");
+
+        given().when().get("/v1/cachorros/" + id).then().statusCode(200).body("nome", is(nome));
+        given().when().get("/v1/cachorros/search?q=olinda").then().statusCode(200).body("Cachorros[0].id", is(id));
+
+        int version = given().when().get("/v1/cachorros/" + id).then().extract().path("version");
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType("application/merge-patch+json; charset=UTF-8")
+                .body("{\"version\":" + version + ",\"localDeResgate\":\"Recife\"}")
+                .when().patch("/v1/cachorros/" + id)
+                .then().statusCode(200);
+        given().when().get("/v1/cachorros/" + id).then().statusCode(200)
+                .body("localDeResgate", is("Recife"))
+                .body("version", is(version + 1));
+
+        given().header("X-Idempotency-Key", UUID.randomUUID().toString())
+                .when().delete("/v1/cachorros/" + id)
+                .then().statusCode(204);
+        given().when().get("/v1/cachorros/" + id).then().statusCode(404);
+        assertTrue(readModel.verificarConsistencia(), "O snapshot deve continuar igual ao banco");
+    }
+
+    @Test
+    void testReconciliacaoAtualizaProjecoes() {
+        int id = given().header("X-Idempotency-Key", UUID.randomUUID().toString()).contentType(ContentType.JSON)
+                .body("{\"nome\":\"Maestro\",\"dataDeNascimento\":\"2020-10-10\",\"localDeResgate\":\"Caruaru\","
+                        + "\"ficha\":{\"habilidadesEspeciais\":\"Uiva acompanhando o xilofone\"}}")
+                .when().post("/v1/cachorros")
+                .then().statusCode(201)
+                .extract().path("id");
+        recomendacao.sincronizar();
+        assertTrue(recomendacao.recomendar("xilofone", 5).stream().anyMatch(r -> r.id() == id));
+
+        // Adoção aprovada gravada direto no banco, sem passar pelos endpoints
+        QuarkusTransaction.requiringNew().run(() -> Adocao.getEntityManager()
+                .createNativeQuery("insert into Adocao (dataSolicitacao, justificativa, status, cachorro_id) values (current_date, 'Importada', 'Aprovada', ?1)")
+                .setParameter(1, id)
+                .executeUpdate());
+        given().when().get("/v1/cachorros/" + id).then().statusCode(200).body("disponibilidade", is("DISPONIVEL"));
+
+        assertTrue(reconciliacao.reconciliar() >= 1);
+        given().when().get("/v1/cachorros/" + id).then().statusCode(200).body("disponibilidade", is("ADOTADO"));
+        recomendacao.sincronizar();
+        assertFalse(recomendacao.recomendar("xilofone", 5).stream().anyMatch(r -> r.id() == id),
+                "Cachorro adotado não deve ser recomendado");
+        assertTrue(readModel.verificarConsistencia(), "A reconciliação deve chegar ao snapshot sem esperar a verificação");
+    }
+
+    private static PanacheQuery<Cachorro> consulta(String q) {
+        if (q.isBlank()) return Cachorro.findAll(Sort.by("id"));
+        return Cachorro.find("lower(nome) like ?1 or lower(localDeResgate) like ?1", Sort.by("id"), "%" + q.toLowerCase() + "%");
+    }
+}
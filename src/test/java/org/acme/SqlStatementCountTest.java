@@ -0,0 +1,60 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.acme.SqlStatementGuard.assertMaxStatements;
+import static org.acme.SqlStatementGuard.statements;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Contagens por requisição, lidas do Server-Timing. Os limites são os valores medidos: um a mais já é regressão.
+@QuarkusTest
+class SqlStatementCountTest {
+
+    @Test
+    void testCachorroGetById() {
+        assertMaxStatements(1, given()
+                .when().get("/v1/cachorros/1")
+                .then()
+                .statusCode(200));
+    }
+
+    @Test
+    void testCachorroSearch() {
+        // página + count + fichas em lote
+        assertMaxStatements(3, given()
+                .when().get("/v1/cachorros/search?q=a&size=4")
+                .then()
+                .statusCode(200));
+    }
+
+    @Test
+    void testRacaGetAll() {
+        assertMaxStatements(1, given()
+                .when().get("/v1/racas")
+                .then()
+                .statusCode(200));
+    }
+
+    @Test
+    void testAdocaoGetAll() {
+        // adoções + cachorros (EAGER, com ficha) + racas em lote na serialização; N+1 passaria disso
+        assertMaxStatements(3, given()
+                .when().get("/v1/adocoes")
+                .then()
+                .statusCode(200));
+    }
+
+    @Test
+    void testServerTimingContaLazyLoadsDaSerializacao() {
+        // Sem JOIN FETCH as racas só são carregadas pelo Jackson: o header tem de vê-las
+        assertEquals(2, statements(given().when().get("/v1/adocoes/1").then().statusCode(200)));
+        given()
+                .when().get("/v1/racas/1")
+                .then()
+                .statusCode(200)
+                .header("Server-Timing", containsString("db;dur="));
+    }
+}
@@ -0,0 +1,33 @@
+package org.acme;
+
+import io.restassured.response.ValidatableResponse;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Falha o teste se a requisição executar mais statements SQL do que o esperado.
+ * Conta pelo header Server-Timing da própria resposta (ligado no perfil de teste), que só é
+ * gerado depois da serialização: inclui lazy loads do Jackson e não os de jobs agendados.
+ */
+public final class SqlStatementGuard {
+
+    private static final Pattern STATEMENTS = Pattern.compile("db;.*desc=\"(\\d+) statements");
+
+    private SqlStatementGuard() {}
+
+    public static int statements(ValidatableResponse response) {
+        String serverTiming = response.extract().header("Server-Timing");
+        assertNotNull(serverTiming, "Resposta sem o header Server-Timing");
+        Matcher matcher = STATEMENTS.matcher(serverTiming);
+        assertTrue(matcher.find(), "Server-Timing sem a contagem de statements: " + serverTiming);
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    public static void assertMaxStatements(int max, ValidatableResponse response) {
+        int executed = statements(response);
+        assertTrue(executed <= max, "Esperado no máximo " + max + " statements SQL, executados " + executed);
+    }
+}
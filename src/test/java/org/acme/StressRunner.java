@@ -0,0 +1,88 @@
+package org.acme;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import org.jboss.logging.Logger;
+
+/**
+ * Dispara requisições concorrentes contra a aplicação de teste e registra a vazão no log.
+ * Usa o HttpClient do JDK, que pode ser compartilhado entre threads (o RestAssured não é feito para isso).
+ */
+public final class StressRunner {
+
+    private static final Logger LOG = Logger.getLogger(StressRunner.class);
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    private StressRunner() {}
+
+    /**
+     * Executa {@code requisicoes} chamadas em {@code threads} threads virtuais simultâneas, todas liberadas
+     * ao mesmo tempo. A chamada recebe o índice da requisição; os resultados voltam na mesma ordem.
+     */
+    public static <T> List<T> run(String nome, int threads, int requisicoes, IntFunction<T> requisicao) {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>(requisicoes);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads, Thread.ofVirtual().factory())) {
+            for (int i = 0; i < requisicoes; i++) {
+                int indice = i;
+                futures.add(executor.submit(() -> {
+                    largada.await();
+                    return requisicao.apply(indice);
+                }));
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            List<T> resultados = new ArrayList<>(requisicoes);
+            for (Future<T> future : futures) {
+                resultados.add(future.get());
+            }
+            long nanos = System.nanoTime() - inicio;
+            LOG.infof("[stress] %s: %d requisições em %d threads, %.1f ms, %.0f req/s", nome, requisicoes, threads,
+                    nanos / 1e6, requisicoes / (nanos / 1e9));
+            return resultados;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha em uma das requisições de " + nome, e.getCause());
+        }
+    }
+
+    public static HttpResponse<String> send(HttpRequest.Builder request) {
+        try {
+            return CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static HttpResponse<String> get(URI uri) {
+        return send(HttpRequest.newBuilder(uri).GET());
+    }
+
+    public static HttpResponse<String> json(String method, URI uri, String idempotencyKey, String contentType, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .header("X-Idempotency-Key", idempotencyKey)
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (body != null) request.header("Content-Type", contentType);
+        return send(request);
+    }
+}
@@ -0,0 +1,72 @@
+package org.acme.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditCodecTest {
+
+    private static final Instant AGORA = Instant.ofEpochMilli(1_760_000_000_123L);
+
+    @Test
+    void testRoundTrip() {
+        AuditRecord completo = new AuditRecord("Cachorro", 42, AuditOperation.UPDATE, "chave-ç", AGORA, "{\"nome\":\"Pipoca 🐶\"}");
+        AuditRecord minimo = new AuditRecord("Raca", -1, AuditOperation.DELETE, null, AGORA, null);
+        byte[] a = AuditCodec.encode(completo);
+        byte[] b = AuditCodec.encode(minimo);
+
+        // Dois registros seguidos e depois zeros, como num segmento pré-alocado
+        ByteBuffer buf = ByteBuffer.allocate(a.length + b.length + 64).put(a).put(b).flip().limit(a.length + b.length + 64);
+        assertEquals(completo, AuditCodec.decode(buf));
+        assertEquals(minimo, AuditCodec.decode(buf));
+        assertEquals(a.length + b.length, buf.position());
+        assertNull(AuditCodec.decode(buf));
+        assertEquals(a.length + b.length, buf.position());
+    }
+
+    @Test
+    void testRegistroIncompletoOuCorrompido() {
+        byte[] registro = AuditCodec.encode(new AuditRecord("Adocao", 7, AuditOperation.CREATE, "k", AGORA, "{\"status\":\"Pendente\"}"));
+
+        // Queda no meio da escrita: o tamanho diz mais do que há no buffer
+        ByteBuffer incompleto = ByteBuffer.wrap(registro, 0, registro.length - 3).slice();
+        assertNull(AuditCodec.decode(incompleto));
+        assertEquals(0, incompleto.position());
+
+        // Corpo alterado: falha no CRC
+        byte[] corrompido = registro.clone();
+        corrompido[AuditCodec.HEADER_SIZE + 12] ^= 0x01;
+        ByteBuffer buf = ByteBuffer.wrap(corrompido);
+        assertNull(AuditCodec.decode(buf));
+        assertEquals(0, buf.position());
+
+        assertNull(AuditCodec.decode(ByteBuffer.allocate(AuditCodec.HEADER_SIZE - 1)));
+    }
+
+    @Test
+    void testDiffTruncadoEmFronteiraUtf8() {
+        // 'é' ocupa 2 bytes e começa no último byte permitido: não pode ser cortado ao meio
+        String diff = "a".repeat(AuditCodec.MAX_DIFF_BYTES - 1) + "é" + "b";
+        byte[] registro = AuditCodec.encode(new AuditRecord("Cachorro", 1, AuditOperation.CREATE, null, AGORA, diff));
+        AuditRecord lido = AuditCodec.decode(ByteBuffer.wrap(registro));
+        assertEquals("a".repeat(AuditCodec.MAX_DIFF_BYTES - 1), lido.diff());
+
+        String texto = "Ação € 🐶 ok";
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        for (int max = 0; max <= bytes.length; max++) {
+            byte[] cortado = AuditCodec.truncate(bytes, max);
+            String decodificado = new String(cortado, StandardCharsets.UTF_8);
+            assertTrue(cortado.length <= max && cortado.length > max - 4, "max=" + max);
+            assertTrue(texto.startsWith(decodificado), "max=" + max + ": " + decodificado);
+            assertFalse(decodificado.contains("�"), "max=" + max);
+        }
+        assertArrayEquals(bytes, AuditCodec.truncate(bytes, bytes.length + 10));
+    }
+}
@@ -0,0 +1,141 @@
+package org.acme.audit;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import io.quarkus.runtime.configuration.MemorySize;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private AuditJournal journal(long segmentSize, int retentionSegments) {
+        AuditJournal journal = new AuditJournal();
+        journal.enabled = true;
+        journal.dir = dir.toString();
+        journal.segmentSize = new MemorySize(BigInteger.valueOf(segmentSize));
+        journal.retentionSegments = retentionSegments;
+        journal.fsync = AuditJournal.FsyncPolicy.ALWAYS;
+        journal.fsyncInterval = Duration.ofMillis(10);
+        journal.queueCapacity = 10_000;
+        journal.start();
+        return journal;
+    }
+
+    private static AuditEvent evento(long id, String nome) {
+        return new AuditEvent("Cachorro", id, AuditOperation.CREATE, "chave-" + id, null,
+                JsonNodeFactory.instance.objectNode().put("nome", nome));
+    }
+
+    private static void gravar(AuditJournal journal, long... ids) {
+        for (long id : ids) journal.onEvent(evento(id, "Cachorro " + id));
+        // stop() espera o flusher e grava o que ainda estiver na fila
+        journal.stop();
+    }
+
+    private List<Long> idsGravados() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        new AuditJournalReader(dir).scan(r -> ids.add(r.entityId()));
+        return ids;
+    }
+
+    private Path unicoSegmento() throws IOException {
+        List<Path> segmentos = AuditJournalReader.segments(dir);
+        assertEquals(1, segmentos.size());
+        return segmentos.get(0);
+    }
+
+    @Test
+    void testRecuperaAposRegistroIncompleto() throws IOException {
+        gravar(journal(64 * 1024, 10), 1, 2, 3);
+        try (FileChannel channel = FileChannel.open(unicoSegmento(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            while (AuditCodec.decode(buf) != null) { }
+            // Queda no meio da escrita: cabeçalho e parte do corpo do próximo registro
+            byte[] proximo = AuditCodec.encode(new AuditRecord("Cachorro", 99, AuditOperation.CREATE, null, Instant.now(), "{}"));
+            buf.put(proximo, 0, AuditCodec.HEADER_SIZE + 5);
+            buf.force();
+        }
+        assertEquals(List.of(1L, 2L, 3L), idsGravados());
+
+        // Reaberto, o journal continua a partir do último registro íntegro, sobrescrevendo o incompleto
+        gravar(journal(64 * 1024, 10), 4, 5);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), idsGravados());
+    }
+
+    @Test
+    void testRecuperaAposRegistroCorrompido() throws IOException {
+        gravar(journal(64 * 1024, 10), 1, 2, 3);
+        try (FileChannel channel = FileChannel.open(unicoSegmento(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            AuditCodec.decode(buf);
+            AuditCodec.decode(buf);
+            int terceiro = buf.position() + AuditCodec.HEADER_SIZE + 12;
+            buf.put(terceiro, (byte) (buf.get(terceiro) ^ 0x01));
+            buf.force();
+        }
+        assertEquals(List.of(1L, 2L), idsGravados());
+
+        gravar(journal(64 * 1024, 10), 4);
+        assertEquals(List.of(1L, 2L, 4L), idsGravados());
+    }
+
+    @Test
+    void testRotacaoNoTamanhoDoSegmento() throws IOException {
+        int tamanho = AuditCodec.encode(new AuditRecord("Cachorro", 1, AuditOperation.CREATE, "chave-1", Instant.now(),
+                "{\"nome\":\"Cachorro 1\"}")).length;
+        // Cabem exatamente três registros por segmento
+        AuditJournal journal = journal(tamanho * 3L + 2, 100);
+        journal.onEvent(new AuditEvent("Cachorro", 0, AuditOperation.CREATE, null, null,
+                JsonNodeFactory.instance.objectNode().put("nome", "x".repeat(tamanho * 4))));
+        gravar(journal, 1, 2, 3, 4, 5, 6, 7);
+
+        List<Path> segmentos = AuditJournalReader.segments(dir);
+        assertEquals(3, segmentos.size());
+        for (Path segmento : segmentos) assertEquals(tamanho * 3L + 2, Files.size(segmento));
+        // O registro maior que o segmento é descartado sem impedir os seguintes
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), idsGravados());
+    }
+
+    @Test
+    void testFilaCheiaDescartaEConta() throws IOException {
+        AuditJournal journal = journal(4 * 1024 * 1024, 10);
+        journal.queueCapacity = 1;
+        int total = 20_000;
+        gravar(journal, LongStream.rangeClosed(1, total).toArray());
+
+        // O flusher não acompanha uma rajada com fila de 1: parte é descartada, e nada some sem ser contado
+        List<Long> gravados = idsGravados();
+        assertTrue(journal.dropped() > 0);
+        assertEquals(total, gravados.size() + journal.dropped());
+        assertEquals(gravados.stream().sorted().toList(), gravados);
+    }
+
+    @Test
+    void testRetencaoApagaSegmentosAntigos() throws IOException {
+        int tamanho = AuditCodec.encode(new AuditRecord("Cachorro", 10, AuditOperation.CREATE, "chave-10", Instant.now(),
+                "{\"nome\":\"Cachorro 10\"}")).length;
+        gravar(journal(tamanho * 2L, 2), LongStream.rangeClosed(10, 19).toArray());
+
+        List<Path> segmentos = AuditJournalReader.segments(dir);
+        assertEquals(2, segmentos.size());
+        assertTrue(segmentos.get(1).getFileName().toString().endsWith("00005.seg"), segmentos.toString());
+        assertEquals(List.of(16L, 17L, 18L, 19L), idsGravados());
+    }
+}
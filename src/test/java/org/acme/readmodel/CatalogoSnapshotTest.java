@@ -0,0 +1,130 @@
+package org.acme.readmodel;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.acme.Cachorro;
+import org.acme.Disponibilidade;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CatalogoSnapshotTest {
+
+    private static CachorroView view(long id, long version, String nome, String local) {
+        return new CachorroView(id, version, nome, LocalDate.of(2020, 1, 1), local, Disponibilidade.DISPONIVEL, null);
+    }
+
+    private static List<Long> ids(List<CachorroView> views) {
+        return views.stream().map(CachorroView::id).toList();
+    }
+
+    @Test
+    void testWithInsereMantendoOrdemPorId() {
+        CatalogoSnapshot snapshot = CatalogoSnapshot.of(List.of(view(5, 0, "Toby", "Curitiba"), view(1, 0, "Luna", "São Paulo")))
+                .with(view(3, 0, "Max", "Belo Horizonte"))
+                .with(view(9, 0, "Rex", "Recife"))
+                .with(view(0, 0, "Bob", "Natal"));
+
+        assertEquals(List.of(0L, 1L, 3L, 5L, 9L), ids(snapshot.all()));
+        assertEquals("Max", snapshot.get(3).nome());
+        assertNull(snapshot.get(4));
+        assertEquals(List.of(9L), ids(snapshot.porLocalDeResgate("RECIFE")));
+    }
+
+    @Test
+    void testWithIgnoraVersaoAntiga() {
+        CatalogoSnapshot snapshot = CatalogoSnapshot.of(List.of(view(1, 3, "Luna v3", "São Paulo")));
+
+        assertSame(snapshot, snapshot.with(view(1, 2, "Luna v2", "São Paulo")));
+        assertEquals("Luna v3", snapshot.get(1).nome());
+        // Mesma version: mudança de disponibilidade, que não incrementa a version
+        assertEquals("Luna v3b", snapshot.with(view(1, 3, "Luna v3b", "São Paulo")).get(1).nome());
+        CatalogoSnapshot novo = snapshot.with(view(1, 4, "Luna v4", "Santos"));
+        assertEquals("Luna v4", novo.get(1).nome());
+        assertEquals(List.of(), novo.porLocalDeResgate("São Paulo"));
+        assertEquals(List.of(1L), ids(novo.porLocalDeResgate("santos")));
+    }
+
+    @Test
+    void testWithout() {
+        CatalogoSnapshot snapshot = CatalogoSnapshot.of(List.of(view(1, 0, "Luna", "Recife"), view(2, 0, "Spike", "Recife"),
+                view(3, 0, "Max", "Natal")));
+
+        CatalogoSnapshot sem = snapshot.without(2);
+        assertEquals(List.of(1L, 3L), ids(sem.all()));
+        assertEquals(List.of(1L), ids(sem.porLocalDeResgate("recife")));
+        assertSame(sem, sem.without(2));
+        assertEquals(List.of(), ids(sem.without(1).without(3).all()));
+        // O original não muda
+        assertEquals(3, snapshot.size());
+    }
+
+    @Test
+    void testRemovidoNaoVoltaComUpsertAtrasado() {
+        CatalogoSnapshot snapshot = CatalogoSnapshot.of(List.of(view(1, 0, "Luna", "Recife"), view(2, 0, "Spike", "Recife")));
+
+        // O evento de uma transação anterior à remoção chega depois dela
+        CatalogoSnapshot sem = snapshot.without(2);
+        assertSame(sem, sem.with(view(2, 0, "Spike", "Recife")));
+        assertSame(sem, sem.with(view(2, 7, "Spike editado", "Natal")));
+        assertNull(sem.get(2));
+        assertEquals(List.of(), ids(sem.porLocalDeResgate("natal")));
+
+        // Remoção que chega antes do evento da inserção
+        CatalogoSnapshot semNovo = sem.without(3);
+        assertEquals(List.of(1L), ids(semNovo.all()));
+        assertNull(semNovo.with(view(3, 0, "Max", "Natal")).get(3));
+
+        // Uma reconstrução a partir do banco mantém os removidos
+        CatalogoSnapshot banco = CatalogoSnapshot.of(List.of(view(1, 0, "Luna", "Recife"))).comRemovidosDe(semNovo);
+        assertNull(banco.with(view(2, 0, "Spike", "Recife")).get(2));
+        assertEquals("Rex", banco.with(view(4, 0, "Rex", "Natal")).get(4).nome());
+    }
+
+    @Test
+    void testFiltrar() {
+        CatalogoSnapshot snapshot = CatalogoSnapshot.of(List.of(view(1, 0, "Luna", "São Paulo"), view(2, 0, "Spike", "Rio de Janeiro"),
+                view(3, 0, "Max", "Belo Horizonte"), view(4, 0, "Pipoca_2", "Salvador"), view(5, 0, "100% Toby", "Curitiba")));
+
+        assertEquals(List.of(2L, 4L), ids(snapshot.filtrar("PI")));
+        assertEquals(List.of(2L), ids(snapshot.filtrar("janeiro")));
+        assertEquals(List.of(), ids(snapshot.filtrar("xyz")));
+        // Como no LIKE do banco: '_' casa um caractere qualquer e '%' qualquer sequência
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(snapshot.filtrar("_")));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(snapshot.filtrar("%")));
+        assertEquals(List.of(3L), ids(snapshot.filtrar("o_h")));
+        assertEquals(List.of(1L), ids(snapshot.filtrar("s%paulo")));
+        assertEquals(List.of(4L), ids(snapshot.filtrar("ca_2")));
+        // Caracteres especiais de regex continuam literais
+        assertEquals(List.of(), ids(snapshot.filtrar("l.na")));
+    }
+
+    @Test
+    void testPaginar() {
+        List<CachorroView> views = List.of(view(1, 0, "A", "X"), view(2, 0, "B", "X"), view(3, 0, "C", "X"),
+                view(4, 0, "D", "X"), view(5, 0, "E", "X"));
+
+        CatalogoReadModel.Pagina primeira = CatalogoReadModel.paginar(views, 0, 2);
+        assertEquals(List.of(1L, 2L), primeira.itens().stream().map(c -> c.id).toList());
+        assertEquals(5, primeira.total());
+        assertEquals(3, primeira.totalPaginas());
+
+        CatalogoReadModel.Pagina ultima = CatalogoReadModel.paginar(views, 2, 2);
+        assertEquals(List.of(5L), ultima.itens().stream().map(c -> c.id).toList());
+
+        assertEquals(List.of(), CatalogoReadModel.paginar(views, 7, 2).itens());
+        assertEquals(List.of(1L, 2L), CatalogoReadModel.paginar(views, -1, 2).itens().stream().map(c -> c.id).toList());
+        CatalogoReadModel.Pagina tudo = CatalogoReadModel.paginar(views, 1, Integer.MAX_VALUE);
+        assertEquals(List.of(), tudo.itens());
+        assertEquals(1, tudo.totalPaginas());
+
+        CatalogoReadModel.Pagina vazia = CatalogoReadModel.paginar(List.of(), 0, 4);
+        assertEquals(0, vazia.total());
+        assertEquals(0, vazia.totalPaginas());
+
+        Cachorro c = CatalogoReadModel.paginar(views, 0, 1).itens().get(0);
+        assertEquals("A", c.nome);
+    }
+}
@@ -0,0 +1,85 @@
+package org.acme.recomendacao;
+
+import java.time.Duration;
+import java.util.List;
+import org.acme.Cachorro;
+import org.acme.FichaCachorro;
+import org.acme.readmodel.CachorroAlterado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndiceRecomendacaoTest {
+
+    private IndiceRecomendacao indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceRecomendacao();
+        indice.enabled = true;
+        // A reconstrução agendada nunca roda durante o teste; sincronizar() aplica as pendentes
+        indice.atraso = Duration.ofHours(1);
+        indice.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        indice.stop();
+    }
+
+    private void salvo(long id, long version, String temperamento) {
+        Cachorro cachorro = new Cachorro();
+        cachorro.id = id;
+        cachorro.version = version;
+        cachorro.ficha = new FichaCachorro(null, temperamento, null);
+        indice.onCachorroAlterado(CachorroAlterado.salvo(cachorro));
+    }
+
+    private void removido(long id) {
+        indice.onCachorroAlterado(CachorroAlterado.removido(id));
+    }
+
+    private List<Long> recomendar(String perfil) {
+        indice.sincronizar();
+        return indice.recomendar(perfil, 10).stream().map(IndiceRecomendacao.Recomendacao::id).sorted().toList();
+    }
+
+    @Test
+    void testEventoAtrasadoNaoVoltaVersao() {
+        // Ainda pendentes: fica a de maior version, não a que chegou por último
+        salvo(1, 2, "Calmo");
+        salvo(1, 1, "Agitado");
+        assertEquals(List.of(1L), recomendar("calmo"));
+
+        // Já aplicada
+        salvo(1, 1, "Agitado");
+        assertEquals(List.of(1L), recomendar("calmo"));
+        assertEquals(List.of(), recomendar("agitado"));
+
+        salvo(1, 3, "Agitado");
+        assertEquals(List.of(1L), recomendar("agitado"));
+    }
+
+    @Test
+    void testRemovidoNaoVoltaComEventoAtrasado() {
+        salvo(1, 0, "Calmo");
+        salvo(2, 0, "Calmo e dócil");
+        assertEquals(List.of(1L, 2L), recomendar("calmo"));
+
+        // Remoção e salvo atrasado no mesmo lote
+        removido(1);
+        salvo(1, 1, "Calmo");
+        assertEquals(List.of(2L), recomendar("calmo"));
+
+        // Salvo atrasado depois de a remoção já ter sido aplicada
+        salvo(1, 2, "Calmo");
+        assertEquals(List.of(2L), recomendar("calmo"));
+
+        // Remoção que chega antes do evento de inserção
+        removido(3);
+        salvo(3, 0, "Calmo");
+        assertEquals(List.of(2L), recomendar("calmo"));
+    }
+}
@@ -0,0 +1,102 @@
+package org.acme.recomendacao;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceTfIdfTest {
+
+    private static IndiceTfIdf.Documento doc(long id, boolean adotado, String texto) {
+        return doc(id, 0L, adotado, texto);
+    }
+
+    private static IndiceTfIdf.Documento doc(long id, Long version, boolean adotado, String texto) {
+        return new IndiceTfIdf.Documento(id, version, adotado, Tokenizador.contar(texto));
+    }
+
+    private static final List<IndiceTfIdf.Documento> DOCUMENTOS = List.of(
+            doc(1, false, "Calmo, bom com crianças e gosta de brincar no quintal"),
+            doc(2, false, "Agitado, late para estranhos, ótimo cão de guarda"),
+            doc(3, false, "Calmo, dorme o dia todo"),
+            doc(4, true, "Calmo e bom com crianças"),
+            doc(5, false, ""));
+
+    private static List<Long> ids(TopK top) {
+        return top.ordenados().stream().map(TopK.Resultado::id).toList();
+    }
+
+    private static List<Long> recomendar(IndiceTfIdf indice, String perfil, boolean ignorarAdotados) {
+        float[] consulta = indice.vetorDoTexto(perfil);
+        return consulta == null ? List.of() : ids(indice.buscar(consulta, 10, -1, ignorarAdotados));
+    }
+
+    @Test
+    void testRanking() {
+        IndiceTfIdf indice = IndiceTfIdf.of(DOCUMENTOS);
+
+        // O 4 é o mais parecido, mas já foi adotado; quem não compartilha termos (2 e 5) não aparece
+        assertEquals(List.of(1L, 3L), recomendar(indice, "calmo e bom com crianças", true));
+        assertEquals(List.of(4L, 1L, 3L), recomendar(indice, "calmo e bom com crianças", false));
+        assertEquals(List.of(2L), recomendar(indice, "cão de guarda", true));
+        assertEquals(List.of(), recomendar(indice, "xilofone", true));
+
+        List<TopK.Resultado> similares = indice.buscar(indice.vetorDoCachorro(1), 10, 1, false).ordenados();
+        assertEquals(List.of(4L, 3L), similares.stream().map(TopK.Resultado::id).toList());
+        assertTrue(similares.get(0).score() <= 1.0001f && similares.get(0).score() > similares.get(1).score());
+        assertNull(indice.vetorDoCachorro(99));
+    }
+
+    @Test
+    void testAplicarIgualAReconstruir() {
+        IndiceTfIdf indice = IndiceTfIdf.of(DOCUMENTOS.subList(0, 3));
+        assertSame(indice, indice.aplicar(List.of(), List.of()));
+
+        IndiceTfIdf atualizado = indice.aplicar(
+                List.of(doc(4, true, "Calmo e bom com crianças"), doc(2, false, "Calmo e carinhoso"), doc(0, false, "Brincalhão")),
+                List.of(3L, 42L));
+        IndiceTfIdf reconstruido = IndiceTfIdf.of(List.of(
+                DOCUMENTOS.get(0), doc(2, false, "Calmo e carinhoso"), doc(4, true, "Calmo e bom com crianças"), doc(0, false, "Brincalhão")));
+
+        assertEquals(4, atualizado.size());
+        assertNull(atualizado.vetorDoCachorro(3));
+        for (String perfil : List.of("calmo", "bom com crianças", "carinhoso e brincalhão")) {
+            float[] a = atualizado.vetorDoTexto(perfil);
+            float[] b = reconstruido.vetorDoTexto(perfil);
+            assertEquals(ids(reconstruido.buscar(b, 10, -1, false)), ids(atualizado.buscar(a, 10, -1, false)), perfil);
+        }
+        // O índice original não muda
+        assertEquals(3, indice.size());
+    }
+
+    @Test
+    void testAplicarIgnoraVersaoAntiga() {
+        IndiceTfIdf indice = IndiceTfIdf.of(List.of(doc(1, 2L, false, "Calmo"), doc(2, 0L, false, "Agitado")));
+
+        // Evento atrasado de uma transação anterior: nada muda
+        assertSame(indice, indice.aplicar(List.of(doc(1, 1L, false, "Agitado")), List.of()));
+
+        // Mesma version ainda é aplicada (a disponibilidade muda sem incrementá-la)
+        IndiceTfIdf adotado = indice.aplicar(List.of(doc(1, 2L, true, "Calmo")), List.of());
+        assertEquals(List.of(), recomendar(adotado, "calmo", true));
+
+        IndiceTfIdf atualizado = indice.aplicar(List.of(doc(1, 1L, false, "Agitado"), doc(2, 1L, false, "Calmo")), List.of());
+        assertEquals(List.of(1L, 2L), recomendar(atualizado, "calmo", true));
+        assertEquals(List.of(), recomendar(atualizado, "agitado", true));
+    }
+
+    @Test
+    void testBuscaEmBlocos() {
+        // Acima do limiar a busca é paralela; o resultado tem de ser o mesmo
+        List<IndiceTfIdf.Documento> documentos = new ArrayList<>();
+        for (long id = 0; id < 25_000; id++) {
+            documentos.add(doc(id, id == 15_000, id % 5_000 == 0 ? "Raríssimo e dócil" : "Dócil"));
+        }
+        IndiceTfIdf indice = IndiceTfIdf.of(documentos);
+        assertEquals(List.of(0L, 5_000L, 10_000L, 20_000L), ids(indice.buscar(indice.vetorDoTexto("raríssimo"), 10, -1, true)));
+    }
+}
@@ -0,0 +1,42 @@
+package org.acme.recomendacao;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TokenizadorTest {
+
+    private static List<String> termos(String... textos) {
+        return List.of(Tokenizador.contar(textos).termos());
+    }
+
+    @Test
+    void testNormalizacaoERadical() {
+        // Acentos, maiúsculas, plural e gênero viram o mesmo termo
+        Tokenizador.Contagem contagem = Tokenizador.contar("Calma", "CALMOS e calmo; brincalhão!");
+        assertArrayEquals(new String[]{"brincalha", "calm"}, contagem.termos());
+        assertArrayEquals(new int[]{1, 3}, contagem.frequencias());
+    }
+
+    @Test
+    void testStopwords() {
+        // "bom" e "boa" não são stopwords: "bom com crianças" precisa casar
+        assertEquals(List.of("bom", "crianc"), termos("bom com crianças"));
+        assertEquals(List.of("boa", "guard"), termos("boa para guarda"));
+        assertEquals(List.of("late"), termos("ele late muito e tem um ar"));
+    }
+
+    @Test
+    void testTermosOrdenados() {
+        assertEquals(List.of("abrac", "pula", "zelos"), termos("zeloso pula", "abraço"));
+    }
+
+    @Test
+    void testVazio() {
+        assertSame(Tokenizador.Contagem.VAZIA, Tokenizador.contar());
+        assertSame(Tokenizador.Contagem.VAZIA, Tokenizador.contar(null, "  ", "é o da"));
+    }
+}
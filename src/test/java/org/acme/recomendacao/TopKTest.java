@@ -0,0 +1,59 @@
+package org.acme.recomendacao;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKTest {
+
+    private static List<Long> ids(TopK top) {
+        return top.ordenados().stream().map(TopK.Resultado::id).toList();
+    }
+
+    @Test
+    void testMantemOsMaiores() {
+        Random random = new Random(42);
+        List<TopK.Resultado> todos = new ArrayList<>();
+        TopK top = new TopK(10);
+        for (long id = 0; id < 5_000; id++) {
+            float score = random.nextFloat();
+            todos.add(new TopK.Resultado(id, score));
+            top.offer(id, score);
+        }
+        todos.sort(Comparator.comparing(TopK.Resultado::score).reversed());
+        assertEquals(todos.subList(0, 10), top.ordenados());
+    }
+
+    @Test
+    void testMenosQueK() {
+        TopK top = new TopK(5);
+        top.offer(7, 0.2f);
+        top.offer(3, 0.9f);
+        assertEquals(List.of(3L, 7L), ids(top));
+        assertEquals(List.of(), ids(new TopK(3)));
+    }
+
+    @Test
+    void testEmpateOrdenadoPorId() {
+        TopK top = new TopK(3);
+        top.offer(9, 0.5f);
+        top.offer(2, 0.5f);
+        top.offer(5, 0.7f);
+        top.offer(1, 0.1f);
+        assertEquals(List.of(5L, 2L, 9L), ids(top));
+    }
+
+    @Test
+    void testMerge() {
+        TopK a = new TopK(3);
+        TopK b = new TopK(3);
+        for (long id = 0; id < 10; id++) {
+            (id % 2 == 0 ? a : b).offer(id, id / 10f);
+        }
+        assertEquals(List.of(9L, 8L, 7L), ids(a.merge(b)));
+    }
+}